@@ -0,0 +1,75 @@
+package com.boot.benchmark;
+
+import com.boot.common.annotation.ControllerEndpoint;
+import com.boot.common.aspect.EndpointMetadata;
+import com.boot.common.aspect.EndpointMetadataRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 切面元数据解析: 每次反射(原实现) 对比 启动时预先注册
+ * <p>
+ * java -jar benchmark/target/benchmarks.jar EndpointMetadataBenchmark
+ * @author Yarns
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EndpointMetadataBenchmark {
+
+    public static class BaseController {
+        @ControllerEndpoint(operation = "查询")
+        public String query(String name, Integer pageNum, HttpServletRequest request) {
+            return name;
+        }
+    }
+
+    public static class SampleController extends BaseController {
+    }
+
+    private Method signatureMethod;
+
+    private EndpointMetadataRegistry registry;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        signatureMethod = SampleController.class.getMethod("query", String.class, Integer.class, HttpServletRequest.class);
+        registry = new EndpointMetadataRegistry();
+        registry.register(SampleController.class);
+    }
+
+    @Benchmark
+    public void reflection(Blackhole blackhole) {
+        Method method = getDeclaredMethod(SampleController.class, signatureMethod.getName(), signatureMethod.getParameterTypes());
+        blackhole.consume(method.getAnnotation(ControllerEndpoint.class));
+        blackhole.consume(new LocalVariableTableParameterNameDiscoverer().getParameterNames(method));
+    }
+
+    @Benchmark
+    public EndpointMetadata registry() {
+        return registry.get(SampleController.class, signatureMethod);
+    }
+
+    /**
+     * 原 AspectSupport 的解析方式
+     */
+    private static Method getDeclaredMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        try {
+            return clazz.getDeclaredMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            Class<?> superClass = clazz.getSuperclass();
+            if (superClass != null) {
+                return getDeclaredMethod(superClass, name, parameterTypes);
+            }
+        }
+        return null;
+    }
+}
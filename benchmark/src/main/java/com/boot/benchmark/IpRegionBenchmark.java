@@ -0,0 +1,77 @@
+package com.boot.benchmark;
+
+import com.boot.common.region.IpRegionService;
+import org.apache.commons.io.FileUtils;
+import org.lionsoul.ip2region.DataBlock;
+import org.lionsoul.ip2region.DbConfig;
+import org.lionsoul.ip2region.DbSearcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ip 地区解析: 每次打开文件 btree 检索(原 AddressUtils) 对比 内存二分检索
+ * <p>
+ * java -jar benchmark/target/benchmarks.jar IpRegionBenchmark
+ * @author Yarns
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IpRegionBenchmark {
+
+    private static final int IP_COUNT = 1024;
+
+    private final String[] ips = new String[IP_COUNT];
+
+    private File dbFile;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+
+        String next(String[] ips) {
+            return ips[(index++) & (IP_COUNT - 1)];
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < IP_COUNT; i++) {
+            ips[i] = (random.nextInt(223) + 1) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+        }
+        dbFile = File.createTempFile("ip2region", ".db");
+        dbFile.deleteOnExit();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(IpRegionService.DEFAULT_DB_LOCATION)) {
+            FileUtils.copyInputStreamToFile(in, dbFile);
+        }
+        IpRegionService.getInstance();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacy(Cursor cursor) throws Exception {
+        DbSearcher searcher = new DbSearcher(new DbConfig(), dbFile.getPath());
+        try {
+            Method method = searcher.getClass().getMethod("btreeSearch", String.class);
+            DataBlock dataBlock = (DataBlock) method.invoke(searcher, cursor.next(ips));
+            return dataBlock.getRegion();
+        } finally {
+            searcher.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String memory(Cursor cursor) {
+        return IpRegionService.getInstance().search(cursor.next(ips));
+    }
+}
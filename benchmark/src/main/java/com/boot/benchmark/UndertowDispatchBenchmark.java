@@ -0,0 +1,112 @@
+package com.boot.benchmark;
+
+import com.boot.common.executor.VirtualThreads;
+import io.undertow.Undertow;
+import io.undertow.servlet.Servlets;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * undertow 请求线程: worker 线程池 对比 虚拟线程, 接口内阻塞 20ms 模拟数据库/redis 调用, 512 个并发客户端
+ * <p>
+ * 吞吐与 p99 分别见 thrpt 与 sample 模式的结果, virtual 需要 JDK 21 运行:
+ * java -jar benchmark/target/benchmarks.jar UndertowDispatchBenchmark
+ * @author Yarns
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class UndertowDispatchBenchmark {
+
+    /**
+     * 模拟的阻塞时间
+     */
+    static final long IO_MILLIS = 20;
+
+    /**
+     * worker: undertow worker 线程池, 线程数为 workerThreads; virtual: 每个请求一个虚拟线程
+     */
+    @Param({"worker", "virtual"})
+    public String mode;
+
+    @Param({"64"})
+    public int workerThreads;
+
+    private Undertow server;
+
+    private ExecutorService virtualExecutor;
+
+    private HttpClient client;
+
+    private HttpRequest request;
+
+    @Setup
+    public void setup() throws Exception {
+        DeploymentInfo deploymentInfo = Servlets.deployment()
+                .setClassLoader(getClass().getClassLoader())
+                .setContextPath("/")
+                .setDeploymentName("benchmark")
+                .addServlets(Servlets.servlet("io", IoServlet.class).addMapping("/io"));
+        if ("virtual".equals(mode)) {
+            virtualExecutor = VirtualThreads.newThreadPerTaskExecutor("Undertow-Virtual-");
+            if (virtualExecutor == null) {
+                throw new IllegalStateException("当前JDK不支持虚拟线程, 需要 JDK 21 运行 virtual");
+            }
+            deploymentInfo.setExecutor(virtualExecutor);
+        }
+        DeploymentManager manager = Servlets.defaultContainer().addDeployment(deploymentInfo);
+        manager.deploy();
+        server = Undertow.builder()
+                .setWorkerThreads(workerThreads)
+                .addHttpListener(0, "127.0.0.1")
+                .setHandler(manager.start())
+                .build();
+        server.start();
+        int port = ((InetSocketAddress) server.getListenerInfo().get(0).getAddress()).getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/io")).GET().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    @Threads(512)
+    public int io() throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    public static class IoServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            try {
+                Thread.sleep(IO_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            resp.getWriter().write("ok");
+        }
+    }
+}
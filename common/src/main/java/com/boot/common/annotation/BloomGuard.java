@@ -0,0 +1,31 @@
+package com.boot.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 布隆过滤器判断 key 一定不存在时直接返回空值, 不执行方法, 也不访问缓存; 可与 @Cacheable 一起使用
+ * <pre>
+ *   &#64;BloomGuard(value = "user", key = "#id")
+ *   &#64;Cacheable(cacheNames = "user", key = "#id")
+ *   public User getById(Long id)
+ * </pre>
+ * 返回值为 Optional 时返回 Optional.empty(), 其他返回 null, 方法不能返回基本类型
+ * @author Yarns
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BloomGuard {
+
+    /**
+     * 过滤器名称
+     */
+    String value();
+
+    /**
+     * SpEL 表达式, 计算要判断的值, 如 #id、#user.id
+     */
+    String key();
+}
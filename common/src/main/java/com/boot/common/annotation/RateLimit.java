@@ -0,0 +1,62 @@
+package com.boot.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流, 与 {@link ControllerEndpoint} 一起使用, 在切面中执行方法前检查
+ * <p>
+ * 令牌桶: 每 period 补充 permits 个令牌, 最多积累 burst 个, 所有节点共用 redis 中的桶
+ * @author Yarns
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+
+    /**
+     * 桶名称, 默认 类名.方法名
+     */
+    String name() default "";
+
+    /**
+     * 每个周期补充的令牌数
+     */
+    long permits();
+
+    long period() default 1;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * 桶容量, 即允许的突发请求数, 默认等于 permits
+     */
+    long burst() default 0;
+
+    /**
+     * 按什么区分桶
+     */
+    KeyType key() default KeyType.IP;
+
+    String message() default "访问过于频繁, 请稍后再试";
+
+    enum KeyType {
+
+        /**
+         * 每个客户端 ip 一个桶
+         */
+        IP,
+
+        /**
+         * 每个登录用户一个桶, 未登录时按 ip
+         */
+        USER,
+
+        /**
+         * 整个接口一个桶
+         */
+        ENDPOINT
+    }
+}
@@ -1,19 +1,8 @@
 package com.boot.common.aspect;
 
-import com.alibaba.fastjson.JSON;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.boot.common.aspect.render.ArgumentRenderer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.web.multipart.MultipartFile;
-
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-import java.io.Serializable;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * @author Yarns
@@ -21,108 +10,34 @@ import java.util.Set;
 public abstract class AspectSupport {
 
 
-    private ObjectMapper objectMapper;
-
-    public void setObjectMapper(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
-    }
+    private EndpointMetadataRegistry metadataRegistry;
 
-    protected Method resolveMethod(ProceedingJoinPoint point) {
-        MethodSignature signature = (MethodSignature)point.getSignature();
-        Class<?> targetClass = point.getTarget().getClass();
-
-        Method method = getDeclaredMethod(targetClass, signature.getName(),
-                signature.getMethod().getParameterTypes());
-        if (method == null) {
-            throw new IllegalStateException("无法解析目标方法: " + signature.getMethod().getName());
-        }
-        return method;
+    public void setMetadataRegistry(EndpointMetadataRegistry metadataRegistry) {
+        this.metadataRegistry = metadataRegistry;
     }
 
-    private Method getDeclaredMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
-        try {
-            return clazz.getDeclaredMethod(name, parameterTypes);
-        } catch (NoSuchMethodException e) {
-            Class<?> superClass = clazz.getSuperclass();
-            if (superClass != null) {
-                return getDeclaredMethod(superClass, name, parameterTypes);
-            }
-        }
-        return null;
+    protected EndpointMetadata resolveMetadata(ProceedingJoinPoint point) {
+        MethodSignature signature = (MethodSignature) point.getSignature();
+        return metadataRegistry.get(point.getTarget().getClass(), signature.getMethod());
     }
 
-    @SuppressWarnings("all")
-    protected StringBuilder handleJsonParams(StringBuilder params, Object[] args, String[] paramNames) {
-        if (null != args) {
-            params.append("[");
-            StringBuilder sb1 = new StringBuilder();
-            for (int i = 0; i < args.length; i++) {
-                if (args[i] instanceof MultipartFile) {
-                    MultipartFile file = (MultipartFile) args[i];
-                    if (i == 0) {
-                        sb1.append("{").append("\"").append(paramNames[i]).append("\"").append(":").append(file.getName()).append("}");
-                    }else {
-                        sb1.append(",{").append("\"").append(paramNames[i]).append("\"").append(":").append(file.getName()).append("}");
-                    }
-                } else if (args[i] instanceof HttpServletResponse) {
-                    if (i == 0) {
-                        sb1.append("{").append("\"").append(paramNames[i]).append("\"").append(":").append("response流").append("}");
-                    }else {
-                        sb1.append(",{").append("\"").append(paramNames[i]).append("\"").append(":").append("response流").append("}");
-                    }
-                }else {
-                    if (i == 0) {
-                        sb1.append("{").append("\"").append(paramNames[i]).append("\"").append(":").append(JSON.toJSONString(args[i])).append("}");
-                    } else {
-                        sb1.append(",{").append("\"").append(paramNames[i]).append("\"").append(":").append(JSON.toJSONString(args[i])).append("}");
-                    }
-                }
-            }
-            params.append(sb1).append("]");
+    /**
+     * 将与请求绑定的参数转换为快照, 请求结束后这些对象会被容器回收, 不能留给异步线程读取
+     *
+     * @param args      参数
+     * @param renderers 预先计算的参数渲染策略
+     * @return 可以安全跨线程读取的参数, 新数组, 不修改 joinPoint 的参数数组
+     */
+    protected Object[] snapshotArgs(Object[] args, ArgumentRenderer[] renderers) {
+        if (args == null) {
+            return null;
         }
-        return params;
-    }
-
-    @SuppressWarnings("all")
-    protected StringBuilder handleParams(StringBuilder params, Object[] args, List paramNames) {
-        try {
-            for (int i = 0; i < args.length; i++) {
-                if (args[i] instanceof Map) {
-                    Set set = ((Map) args[i]).keySet();
-                    List<Object> list = new ArrayList<>();
-                    List<Object> paramList = new ArrayList<>();
-                    for (Object key : set) {
-                        list.add(((Map) args[i]).get(key));
-                        paramList.add(key);
-                    }
-                    return handleParams(params, list.toArray(), paramList);
-                } else {
-                    if (args[i] instanceof Serializable) {
-                        Class<?> aClass = args[i].getClass();
-                        try {
-                            aClass.getDeclaredMethod("toString", new Class[]{null});
-                            // 如果不抛出 NoSuchMethodException 异常则存在 toString 方法 ，安全的 writeValueAsString ，否则 走 Object的 toString方法
-                            params.append(" ").append(paramNames.get(i)).append(": ").append(objectMapper.writeValueAsString(args[i]));
-                        } catch (NoSuchMethodException e) {
-                            params.append(" ").append(paramNames.get(i)).append(": ").append(objectMapper.writeValueAsString(args[i].toString()));
-                        }
-                    } else if (args[i] instanceof MultipartFile) {
-                        MultipartFile file = (MultipartFile) args[i];
-                        params.append(" ").append(paramNames.get(i)).append(": ").append(file.getName());
-                    } else if (args[i] instanceof HttpServletRequest) {
-                        HttpServletRequest request = (HttpServletRequest) args[i];
-                        params.append(" ").append(paramNames.get(i)).append(": ").append(request.getMethod());
-                    } else if (args[i] instanceof HttpServletResponse) {
-                        HttpServletResponse response = (HttpServletResponse) args[i];
-                        params.append(" ").append(paramNames.get(i)).append(": ").append("response流");
-                    } else {
-                        params.append(" ").append(paramNames.get(i)).append(": ").append(args[i]);
-                    }
-                }
+        Object[] snapshot = args.clone();
+        for (int i = 0; i < snapshot.length && i < renderers.length; i++) {
+            if (snapshot[i] != null) {
+                snapshot[i] = renderers[i].capture(snapshot[i]);
             }
-        } catch (Exception ignore) {
-            params.append("参数解析失败");
         }
-        return params;
+        return snapshot;
     }
 }
@@ -0,0 +1,61 @@
+package com.boot.common.aspect;
+
+import com.boot.common.annotation.BloomGuard;
+import com.boot.common.bloom.BloomFilterManager;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link BloomGuard} 切面, 在缓存切面之前执行
+ * @author Yarns
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BloomGuardAspect {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+
+    private final Map<Method, Expression> expressions = new ConcurrentHashMap<>();
+
+    private BloomFilterManager bloomFilterManager;
+
+    @Autowired(required = false)
+    public void setBloomFilterManager(BloomFilterManager bloomFilterManager) {
+        this.bloomFilterManager = bloomFilterManager;
+    }
+
+    @Around("@annotation(bloomGuard)")
+    public Object around(ProceedingJoinPoint point, BloomGuard bloomGuard) throws Throwable {
+        if (bloomFilterManager == null) {
+            return point.proceed();
+        }
+        Method method = ((MethodSignature) point.getSignature()).getMethod();
+        Expression expression = expressions.computeIfAbsent(method, m -> parser.parseExpression(bloomGuard.key()));
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, method, point.getArgs(),
+                PARAMETER_NAME_DISCOVERER);
+        Object value = expression.getValue(context);
+        if (bloomFilterManager.mightContain(bloomGuard.value(), value)) {
+            return point.proceed();
+        }
+        return Optional.class.equals(method.getReturnType()) ? Optional.empty() : null;
+    }
+}
@@ -1,11 +1,15 @@
 package com.boot.common.aspect;
 
-import com.alibaba.fastjson.JSON;
 import com.boot.common.annotation.ControllerEndpoint;
-import com.boot.common.utils.AddressUtils;
+import com.boot.common.annotation.RateLimit;
+import com.boot.common.aspect.render.ArgumentRenderer;
+import com.boot.common.aspect.render.ArgumentWriter;
+import com.boot.common.audit.AuditPipeline;
+import com.boot.common.audit.AuditRecord;
+import com.boot.common.properties.AuditProperties;
+import com.boot.common.ratelimit.RateLimitException;
+import com.boot.common.ratelimit.RedisRateLimiter;
 import com.boot.common.utils.CommonUtils;
-import com.boot.common.utils.DateUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -14,13 +18,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.Date;
-
 /**
  * @author Yarns
  */
@@ -31,10 +30,38 @@ public class ControllerEndpointAspect extends AspectSupport {
 
     private final Logger logger = LoggerFactory.getLogger("monitor");
 
+    private AuditPipeline auditPipeline;
+
+    private AuditProperties auditProperties;
+
+    private RedisRateLimiter rateLimiter;
+
+    private ArgumentWriter argumentWriter;
+
     @Override
     @Autowired
-    public void setObjectMapper(ObjectMapper objectMapper) {
-        super.setObjectMapper(objectMapper);
+    public void setMetadataRegistry(EndpointMetadataRegistry metadataRegistry) {
+        super.setMetadataRegistry(metadataRegistry);
+    }
+
+    @Autowired
+    public void setAuditPipeline(AuditPipeline auditPipeline) {
+        this.auditPipeline = auditPipeline;
+    }
+
+    @Autowired
+    public void setAuditProperties(AuditProperties auditProperties) {
+        this.auditProperties = auditProperties;
+    }
+
+    @Autowired
+    public void setArgumentWriter(ArgumentWriter argumentWriter) {
+        this.argumentWriter = argumentWriter;
+    }
+
+    @Autowired(required = false)
+    public void setRateLimiter(RedisRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
     }
 
     /**
@@ -48,24 +75,24 @@ public class ControllerEndpointAspect extends AspectSupport {
     @Around("pointcut()")
     public Object around(ProceedingJoinPoint point) throws Exception {
         Object result = null;
-        Method targetMethod = resolveMethod(point);
-        ControllerEndpoint annotation = targetMethod.getAnnotation(ControllerEndpoint.class);
+        Throwable failure = null;
+        EndpointMetadata metadata = resolveMetadata(point);
+        ControllerEndpoint annotation = metadata.getAnnotation();
+        if (metadata.getRateLimit() != null && rateLimiter != null) {
+            checkRateLimit(metadata);
+        }
         String operation = annotation.operation();
+        boolean audit = auditProperties.isEnabled() && StringUtils.isNotBlank(operation);
+        // 请求结束后无法再读取request, ip需要在请求线程上获取
+        String ip = audit ? CommonUtils.getHttpServletRequestIpAddress() : null;
         long start = System.currentTimeMillis();
         String username = "匿名";
         try {
-            if (StringUtils.isNotBlank(operation)) {
-                String ip = CommonUtils.getHttpServletRequestIpAddress();
-                logger.info("#####################log start##################");
-                buildLog(point, targetMethod, ip, operation, username, start);
-                result = point.proceed();
-                //处理返回值
-                logger.info("返回值:{}", JSON.toJSONString(result));
-            }
+            result = point.proceed();
             return result;
         } catch (Throwable throwable) {
+            failure = throwable;
             initChildException(throwable);
-            throwable.printStackTrace();
             String exceptionMessage = annotation.exceptionMessage();
             String message = throwable.getMessage();
             String error;
@@ -74,16 +101,45 @@ public class ControllerEndpointAspect extends AspectSupport {
             } else {
                 error = exceptionMessage;
             }
-            logger.info("#####################logError start##################");
-            logger.info("异常信息:{}", throwable.getMessage());
-            logger.error("内部业务异常:{}", CommonUtils.getMessage(throwable));
-            throw new Exception(error);
+            throw new Exception(error, throwable);
         } finally {
-            logger.info("#####################log end##################");
+            boolean recorded = audit
+                    && auditPipeline.submit(buildRecord(point, metadata, ip, operation, username, start, result, failure));
+            // 没有操作日志(未开启、未配置 operation 或队列已满)时, 异常在这里输出
+            if (failure != null && !recorded) {
+                logger.error("内部业务异常: {}.{}()", metadata.getClassName(), metadata.getMethodName(), failure);
+            }
         }
     }
 
 
+    /**
+     * 在执行方法前检查限流, 超出时直接抛出 {@link RateLimitException}, 不进入业务方法也不记录操作日志
+     *
+     * @param metadata
+     */
+    private void checkRateLimit(EndpointMetadata metadata) {
+        RateLimit rateLimit = metadata.getRateLimit();
+        String key;
+        switch (rateLimit.key()) {
+            case ENDPOINT:
+                key = metadata.getRateLimitKey();
+                break;
+            case USER:
+                String user = CommonUtils.getHttpServletRequest().getRemoteUser();
+                key = user != null ? metadata.getRateLimitKey() + "user:" + user
+                        : metadata.getRateLimitKey() + "ip:" + CommonUtils.getHttpServletRequestIpAddress();
+                break;
+            default:
+                key = metadata.getRateLimitKey() + "ip:" + CommonUtils.getHttpServletRequestIpAddress();
+        }
+        long burst = rateLimit.burst() > 0 ? rateLimit.burst() : rateLimit.permits();
+        if (!rateLimiter.tryAcquire(key, rateLimit.permits(), rateLimit.unit().toMillis(rateLimit.period()), burst,
+                rateLimit.key() == RateLimit.KeyType.ENDPOINT)) {
+            throw new RateLimitException(rateLimit.message(), key);
+        }
+    }
+
     private void initChildException(Throwable throwable) {
         if (throwable.getCause() != null) {
             throwable = throwable.getCause();
@@ -92,43 +148,29 @@ public class ControllerEndpointAspect extends AspectSupport {
     }
 
     /**
-     * 打印日志
+     * 采集日志记录, 地址解析与不可变参数的序列化交给消费线程; 可变的参数与返回值在这里固定为 json
      *
      * @param point
-     * @param method
+     * @param metadata
      * @param ip
      * @param operation
      * @param username
      * @param start
-     * @throws Throwable
+     * @param result
+     * @param failure
+     * @return
      */
-    private void buildLog(ProceedingJoinPoint point, Method method, String ip, String operation, String username, long start) throws Throwable {
-        logger.info("IP:{}", ip);
-        logger.info("操作人:{}", username);
-        logger.info("操作时间:{}", DateUtils.getDateFormat(new Date(), DateUtils.FULL_TIME_SPLIT_PATTERN));
-        logger.info("耗时:{}ms", System.currentTimeMillis() - start);
-        logger.info("操作内容:{}", operation == null ? "" : operation);
-        String className = point.getTarget().getClass().getName();
-        String methodName = method.getName();
-        logger.info("方法:{}", className + "." + methodName + "()");
-        Object[] args = point.getArgs();
-        LocalVariableTableParameterNameDiscoverer u = new LocalVariableTableParameterNameDiscoverer();
-        String[] paramNames = u.getParameterNames(method);
-        if (args != null && paramNames != null) {
-            StringBuilder params = new StringBuilder();
-            params = handleParams(params, args, Arrays.asList(paramNames));
-            StringBuilder jsonParams = new StringBuilder();
-            handleJsonParams(jsonParams, args, paramNames);
-            logger.info("json格式参数:{}", jsonParams);
-            logger.info("对象格式参数:{}", params);
-        }
-        if (ip != null && !"127.0.0.1".equals(ip)) {
-            logger.info("地址:{}", AddressUtils.getCityInfo(ip.trim()));
-        } else {
-            logger.info("地址:{}", "本地");
+    private AuditRecord buildRecord(ProceedingJoinPoint point, EndpointMetadata metadata, String ip, String operation, String username,
+                                    long start, Object result, Throwable failure) {
+        ArgumentRenderer[] renderers = metadata.getArgumentRenderers();
+        Object[] args = snapshotArgs(point.getArgs(), renderers);
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                args[i] = argumentWriter.freeze(args[i], i < renderers.length ? renderers[i] : null);
+            }
         }
+        return new AuditRecord(ip, username, operation, metadata.getClassName(), metadata.getMethodName(),
+                metadata.getParamNames(), renderers, args, argumentWriter.freeze(result, null),
+                start, System.currentTimeMillis() - start, failure);
     }
 }
-
-
-
@@ -0,0 +1,43 @@
+package com.boot.common.aspect;
+
+import com.boot.common.annotation.ControllerEndpoint;
+import com.boot.common.annotation.RateLimit;
+import com.boot.common.aspect.render.ArgumentRenderer;
+import lombok.Value;
+
+import java.lang.reflect.Method;
+
+/**
+ * {@link ControllerEndpoint} 方法的元数据, 启动时解析一次, 切面中直接使用
+ * @author Yarns
+ */
+@Value
+public class EndpointMetadata {
+
+    Class<?> targetClass;
+
+    /**
+     * 目标类上实际声明的方法
+     */
+    Method method;
+
+    ControllerEndpoint annotation;
+
+    String className;
+
+    String methodName;
+
+    String[] paramNames;
+
+    ArgumentRenderer[] argumentRenderers;
+
+    /**
+     * 未限流时为 null
+     */
+    RateLimit rateLimit;
+
+    /**
+     * 限流桶 key 的固定部分, 后面拼接 ip 或用户
+     */
+    String rateLimitKey;
+}
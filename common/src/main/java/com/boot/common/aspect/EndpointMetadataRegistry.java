@@ -0,0 +1,142 @@
+package com.boot.common.aspect;
+
+import com.boot.common.annotation.ControllerEndpoint;
+import com.boot.common.annotation.RateLimit;
+import com.boot.common.aspect.render.ArgumentRenderer;
+import com.boot.common.aspect.render.ArgumentRenderers;
+import com.boot.common.constant.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ControllerEndpoint} 方法元数据注册表
+ * <p>
+ * 启动时扫描所有 bean 预先解析, 以目标类和切点方法为键; 未预先注册的方法(如 JDK 代理的接口方法)在首次调用时解析并缓存
+ * @author Yarns
+ */
+@Slf4j
+@Component
+public class EndpointMetadataRegistry implements ApplicationContextAware, SmartInitializingSingleton {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    private final Map<Class<?>, Map<Method, EndpointMetadata>> registry = new ConcurrentHashMap<>();
+
+    private ApplicationContext applicationContext;
+
+    private ArgumentRenderers argumentRenderers = new ArgumentRenderers();
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Autowired(required = false)
+    public void setArgumentRenderers(ArgumentRenderers argumentRenderers) {
+        this.argumentRenderers = argumentRenderers;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int count = 0;
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> beanType = applicationContext.getType(beanName, false);
+            if (beanType != null) {
+                count += register(ClassUtils.getUserClass(beanType));
+            }
+        }
+        log.info("已注册{}个ControllerEndpoint方法", count);
+    }
+
+    /**
+     * 注册目标类上所有 {@link ControllerEndpoint} 方法
+     *
+     * @param targetClass 目标类
+     * @return 注册数量
+     */
+    public int register(Class<?> targetClass) {
+        Map<Method, EndpointMetadata> methods = MethodIntrospector.selectMethods(targetClass,
+                (MethodIntrospector.MetadataLookup<EndpointMetadata>) method -> method.isAnnotationPresent(ControllerEndpoint.class)
+                        ? build(targetClass, method) : null);
+        if (!methods.isEmpty()) {
+            registry.computeIfAbsent(targetClass, k -> new ConcurrentHashMap<>()).putAll(methods);
+        }
+        return methods.size();
+    }
+
+    /**
+     * 获取元数据
+     *
+     * @param targetClass 目标类
+     * @param method      切点方法
+     * @return EndpointMetadata
+     */
+    public EndpointMetadata get(Class<?> targetClass, Method method) {
+        Map<Method, EndpointMetadata> methods = registry.get(targetClass);
+        EndpointMetadata metadata = methods == null ? null : methods.get(method);
+        if (metadata != null) {
+            return metadata;
+        }
+        return registry.computeIfAbsent(targetClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> build(targetClass, m));
+    }
+
+    private EndpointMetadata build(Class<?> targetClass, Method method) {
+        Method resolved = getDeclaredMethod(targetClass, method.getName(), method.getParameterTypes());
+        if (resolved == null) {
+            throw new IllegalStateException("无法解析目标方法: " + method.getName());
+        }
+        ControllerEndpoint annotation = resolved.getAnnotation(ControllerEndpoint.class);
+        if (annotation == null) {
+            annotation = method.getAnnotation(ControllerEndpoint.class);
+        }
+        if (annotation == null) {
+            throw new IllegalStateException("目标方法缺少ControllerEndpoint注解: " + method.getName());
+        }
+        Class<?>[] parameterTypes = resolved.getParameterTypes();
+        String[] paramNames = PARAMETER_NAME_DISCOVERER.getParameterNames(resolved);
+        if (paramNames == null) {
+            paramNames = new String[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                paramNames[i] = "arg" + i;
+            }
+        }
+        ArgumentRenderer[] renderers = new ArgumentRenderer[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            renderers[i] = argumentRenderers.forDeclaredType(parameterTypes[i]);
+        }
+        RateLimit rateLimit = resolved.getAnnotation(RateLimit.class);
+        String rateLimitKey = null;
+        if (rateLimit != null) {
+            String name = rateLimit.name().isEmpty() ? targetClass.getName() + '.' + resolved.getName() : rateLimit.name();
+            rateLimitKey = Constants.GATEWAY_LIMIT_NUMBER + name + ':';
+        }
+        return new EndpointMetadata(targetClass, resolved, annotation, targetClass.getName(), resolved.getName(),
+                paramNames, renderers, rateLimit, rateLimitKey);
+    }
+
+    private Method getDeclaredMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        try {
+            return clazz.getDeclaredMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            Class<?> superClass = clazz.getSuperclass();
+            if (superClass != null) {
+                return getDeclaredMethod(superClass, name, parameterTypes);
+            }
+        }
+        return null;
+    }
+}
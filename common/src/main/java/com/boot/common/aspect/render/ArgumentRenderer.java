@@ -0,0 +1,42 @@
+package com.boot.common.aspect.render;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * 参数渲染策略
+ * <p>
+ * {@link #capture(Object)} 在请求线程上调用, {@link #render(Object, JsonGenerator)} 在日志消费线程上调用,
+ * 注册为 bean 即可扩展, 优先于内置策略
+ * @author Yarns
+ */
+public interface ArgumentRenderer {
+
+    /**
+     * 是否处理该类型
+     *
+     * @param type 参数类型
+     * @return boolean
+     */
+    boolean supports(Class<?> type);
+
+    /**
+     * 采集参数, 与请求绑定的对象需要在这里转换为快照, 默认原样返回
+     *
+     * @param argument 参数, 不为 null
+     * @return 跨线程安全的参数
+     */
+    default Object capture(Object argument) {
+        return argument;
+    }
+
+    /**
+     * 写出参数
+     *
+     * @param argument  capture 的返回值, 不为 null
+     * @param generator json生成器
+     * @throws IOException 写出失败或超出长度限制
+     */
+    void render(Object argument, JsonGenerator generator) throws IOException;
+}
@@ -0,0 +1,86 @@
+package com.boot.common.aspect.render;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 参数渲染策略集合, 自定义策略优先于内置策略, 按类型解析的结果会被缓存
+ * @author Yarns
+ */
+public class ArgumentRenderers {
+
+    private final List<ArgumentRenderer> renderers = new ArrayList<>();
+
+    private final ArgumentRenderer defaultRenderer = new DefaultArgumentRenderer();
+
+    /**
+     * 声明类型为 Object 或接口时, 按运行时类型选择策略
+     */
+    private final ArgumentRenderer runtimeTypeRenderer = new ArgumentRenderer() {
+        @Override
+        public boolean supports(Class<?> type) {
+            return true;
+        }
+
+        @Override
+        public Object capture(Object argument) {
+            return forRuntimeType(argument.getClass()).capture(argument);
+        }
+
+        @Override
+        public void render(Object argument, JsonGenerator generator) throws IOException {
+            forRuntimeType(argument.getClass()).render(argument, generator);
+        }
+    };
+
+    private final ClassValue<ArgumentRenderer> runtimeTypeCache = new ClassValue<ArgumentRenderer>() {
+        @Override
+        protected ArgumentRenderer computeValue(Class<?> type) {
+            for (ArgumentRenderer renderer : renderers) {
+                if (renderer.supports(type)) {
+                    return renderer;
+                }
+            }
+            return defaultRenderer;
+        }
+    };
+
+    public ArgumentRenderers() {
+        this(Collections.emptyList());
+    }
+
+    public ArgumentRenderers(List<ArgumentRenderer> customRenderers) {
+        renderers.addAll(customRenderers);
+        renderers.add(new MultipartFileArgumentRenderer());
+        renderers.add(new HttpServletRequestArgumentRenderer());
+        renderers.add(new HttpServletResponseArgumentRenderer());
+    }
+
+    /**
+     * 按参数声明类型选择策略, 启动时调用
+     *
+     * @param declaredType 声明类型
+     * @return ArgumentRenderer
+     */
+    public ArgumentRenderer forDeclaredType(Class<?> declaredType) {
+        ArgumentRenderer renderer = runtimeTypeCache.get(declaredType);
+        if (renderer == defaultRenderer && (declaredType.isInterface() || declaredType == Object.class)) {
+            return runtimeTypeRenderer;
+        }
+        return renderer;
+    }
+
+    /**
+     * 按运行时类型选择策略
+     *
+     * @param type 运行时类型
+     * @return ArgumentRenderer
+     */
+    public ArgumentRenderer forRuntimeType(Class<?> type) {
+        return runtimeTypeCache.get(type);
+    }
+}
@@ -0,0 +1,178 @@
+package com.boot.common.aspect.render;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.UUID;
+
+/**
+ * 参数与返回值序列化
+ * <p>
+ * 每个值只序列化一次, 直接写入线程复用的缓冲区; 单个值与整体都有长度限制, 超出后立即中止序列化并截断.
+ * 交给异步线程的值先经过 {@link #freeze(Object, ArgumentRenderer)}: 不可变类型保留引用, 其他对象在当前线程序列化
+ * @author Yarns
+ */
+public class ArgumentWriter {
+
+    private static final String TRUNCATED = "...(截断)";
+
+    private static final String FAILED = "\"参数解析失败\"";
+
+    private final JsonFactory jsonFactory;
+
+    private final ArgumentRenderers renderers;
+
+    private final int maxValueLength;
+
+    private final int maxTotalLength;
+
+    private final ThreadLocal<BoundedWriter> writers;
+
+    /**
+     * 可以跨线程延后序列化的不可变类型
+     */
+    private static final ClassValue<Boolean> IMMUTABLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type == String.class || type == Boolean.class || type == Character.class
+                    || type == Byte.class || type == Short.class || type == Integer.class || type == Long.class
+                    || type == Float.class || type == Double.class || type == BigDecimal.class || type == BigInteger.class
+                    || type == UUID.class || type == RenderedValue.class || Enum.class.isAssignableFrom(type)
+                    || type.getName().startsWith("java.time.");
+        }
+    };
+
+    /**
+     * @param objectMapper   序列化使用的 ObjectMapper
+     * @param renderers      渲染策略
+     * @param maxValueLength 单个值的最大长度
+     * @param maxTotalLength 参数整体的最大长度
+     */
+    public ArgumentWriter(ObjectMapper objectMapper, ArgumentRenderers renderers, int maxValueLength, int maxTotalLength) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.renderers = renderers;
+        this.maxValueLength = maxValueLength;
+        this.maxTotalLength = maxTotalLength;
+        this.writers = ThreadLocal.withInitial(() -> new BoundedWriter(Math.min(maxTotalLength, 1024) + TRUNCATED.length()));
+    }
+
+    /**
+     * 固定参数当前的状态: 可变对象在调用后可能被修改, 懒加载代理在会话关闭后无法读取, 不能留给异步线程序列化
+     *
+     * @param value    capture 之后的值
+     * @param renderer 渲染策略, 为 null 时按运行时类型选择
+     * @return 不可变类型原样返回, 其他对象返回有长度限制的 {@link RenderedValue}
+     */
+    public Object freeze(Object value, ArgumentRenderer renderer) {
+        if (value == null || IMMUTABLE.get(value.getClass())) {
+            return value;
+        }
+        BoundedWriter writer = writers.get();
+        writer.reset();
+        writeValue(writer, value, renderer != null ? renderer : renderers.forRuntimeType(value.getClass()), maxValueLength);
+        return new RenderedValue(writer.buffer().toString());
+    }
+
+    /**
+     * 以 {"参数名":值,...} 的形式写出参数
+     *
+     * @param paramNames 参数名
+     * @param args       capture 之后的参数
+     * @param renderers  每个参数的渲染策略
+     * @return String
+     */
+    public String writeArguments(String[] paramNames, Object[] args, ArgumentRenderer[] renderers) {
+        BoundedWriter writer = writers.get();
+        writer.reset();
+        StringBuilder buffer = writer.buffer();
+        buffer.append('{');
+        if (args != null && paramNames != null) {
+            for (int i = 0; i < args.length && i < paramNames.length; i++) {
+                if (buffer.length() >= maxTotalLength) {
+                    break;
+                }
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                buffer.append('"').append(paramNames[i]).append("\":");
+                ArgumentRenderer renderer = i < renderers.length ? renderers[i] : this.renderers.forRuntimeType(Object.class);
+                writeValue(writer, args[i], renderer, Math.min(buffer.length() + maxValueLength, maxTotalLength));
+            }
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    /**
+     * 写出单个值, 用于返回值
+     *
+     * @param value 值
+     * @return String
+     */
+    public String writeValue(Object value) {
+        BoundedWriter writer = writers.get();
+        writer.reset();
+        ArgumentRenderer renderer = value == null ? null : renderers.forRuntimeType(value.getClass());
+        writeValue(writer, value, renderer, maxValueLength);
+        return writer.buffer().toString();
+    }
+
+    private void writeValue(BoundedWriter writer, Object value, ArgumentRenderer renderer, int limit) {
+        StringBuilder buffer = writer.buffer();
+        if (value == null) {
+            buffer.append("null");
+            return;
+        }
+        if (value instanceof RenderedValue) {
+            // 已序列化, 只按剩余长度截断
+            String json = value.toString();
+            int room = Math.max(0, limit - buffer.length());
+            if (json.length() <= room) {
+                buffer.append(json);
+            } else {
+                buffer.append(json, 0, room).append(TRUNCATED);
+            }
+            return;
+        }
+        int mark = buffer.length();
+        writer.limit(limit);
+        JsonGenerator generator = null;
+        boolean complete = false;
+        try {
+            generator = jsonFactory.createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            renderer.render(value, generator);
+            generator.flush();
+            complete = true;
+        } catch (Exception e) {
+            if (writer.exceeded()) {
+                buffer.append(TRUNCATED);
+            } else {
+                buffer.setLength(mark);
+                buffer.append(FAILED);
+            }
+        } finally {
+            if (!complete) {
+                // 丢弃生成器中残留的内容
+                writer.limit(0);
+            }
+            closeQuietly(generator);
+        }
+    }
+
+    private void closeQuietly(JsonGenerator generator) {
+        if (generator == null) {
+            return;
+        }
+        try {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.close();
+        } catch (IOException ignore) {
+            // 截断后生成器内仍有未写出的内容, 直接丢弃
+        }
+    }
+}
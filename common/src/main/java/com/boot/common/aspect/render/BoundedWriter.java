@@ -0,0 +1,108 @@
+package com.boot.common.aspect.render;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 写入复用缓冲区的 Writer, 超出长度限制时截断并抛出 {@link LimitExceededException} 中止序列化
+ * @author Yarns
+ */
+class BoundedWriter extends Writer {
+
+    private final StringBuilder buffer;
+
+    private int limit;
+
+    private boolean exceeded;
+
+    BoundedWriter(int capacity) {
+        this.buffer = new StringBuilder(capacity);
+    }
+
+    StringBuilder buffer() {
+        return buffer;
+    }
+
+    void reset() {
+        buffer.setLength(0);
+    }
+
+    /**
+     * @param limit 缓冲区允许达到的最大长度
+     */
+    void limit(int limit) {
+        this.limit = limit;
+        this.exceeded = false;
+    }
+
+    /**
+     * @return 本次限制内是否发生过截断
+     */
+    boolean exceeded() {
+        return exceeded;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensure(1);
+        buffer.append((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+        int remaining = limit - buffer.length();
+        if (len > remaining) {
+            buffer.append(chars, off, Math.max(0, remaining));
+            throw exceed();
+        }
+        buffer.append(chars, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        int remaining = limit - buffer.length();
+        if (len > remaining) {
+            buffer.append(str, off, off + Math.max(0, remaining));
+            throw exceed();
+        }
+        buffer.append(str, off, off + len);
+    }
+
+    private void ensure(int len) throws IOException {
+        if (buffer.length() + len > limit) {
+            throw exceed();
+        }
+    }
+
+    private LimitExceededException exceed() {
+        exceeded = true;
+        return LimitExceededException.INSTANCE;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * 超出长度限制, 不收集堆栈
+     */
+    static final class LimitExceededException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        static final LimitExceededException INSTANCE = new LimitExceededException();
+
+        private LimitExceededException() {
+            super("超出长度限制", null);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
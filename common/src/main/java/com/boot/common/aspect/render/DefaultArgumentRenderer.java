@@ -0,0 +1,22 @@
+package com.boot.common.aspect.render;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * 默认策略: 由 ObjectMapper 序列化
+ * @author Yarns
+ */
+public class DefaultArgumentRenderer implements ArgumentRenderer {
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return true;
+    }
+
+    @Override
+    public void render(Object argument, JsonGenerator generator) throws IOException {
+        generator.writeObject(argument);
+    }
+}
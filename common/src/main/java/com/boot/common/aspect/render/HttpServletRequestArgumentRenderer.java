@@ -0,0 +1,19 @@
+package com.boot.common.aspect.render;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 请求对象: 只记录请求方法与地址
+ * @author Yarns
+ */
+public class HttpServletRequestArgumentRenderer extends RequestBoundArgumentRenderer<HttpServletRequest> {
+
+    public HttpServletRequestArgumentRenderer() {
+        super(HttpServletRequest.class);
+    }
+
+    @Override
+    protected String describe(HttpServletRequest request) {
+        return request.getMethod() + " " + request.getRequestURI();
+    }
+}
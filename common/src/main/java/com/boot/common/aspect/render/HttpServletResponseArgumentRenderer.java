@@ -0,0 +1,19 @@
+package com.boot.common.aspect.render;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 响应对象
+ * @author Yarns
+ */
+public class HttpServletResponseArgumentRenderer extends RequestBoundArgumentRenderer<HttpServletResponse> {
+
+    public HttpServletResponseArgumentRenderer() {
+        super(HttpServletResponse.class);
+    }
+
+    @Override
+    protected String describe(HttpServletResponse response) {
+        return "response流";
+    }
+}
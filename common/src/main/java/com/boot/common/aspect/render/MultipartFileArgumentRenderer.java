@@ -0,0 +1,19 @@
+package com.boot.common.aspect.render;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 上传文件: 只记录文件名与大小
+ * @author Yarns
+ */
+public class MultipartFileArgumentRenderer extends RequestBoundArgumentRenderer<MultipartFile> {
+
+    public MultipartFileArgumentRenderer() {
+        super(MultipartFile.class);
+    }
+
+    @Override
+    protected String describe(MultipartFile file) {
+        return file.getOriginalFilename() + "(" + file.getSize() + "B)";
+    }
+}
@@ -0,0 +1,19 @@
+package com.boot.common.aspect.render;
+
+/**
+ * 已在请求线程上序列化的 json, 消费线程原样写出
+ * @author Yarns
+ */
+public final class RenderedValue {
+
+    private final String json;
+
+    RenderedValue(String json) {
+        this.json = json;
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
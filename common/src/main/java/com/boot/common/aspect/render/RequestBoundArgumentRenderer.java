@@ -0,0 +1,41 @@
+package com.boot.common.aspect.render;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * 与请求绑定的参数, 在请求线程上转换为描述文本
+ * @author Yarns
+ */
+public abstract class RequestBoundArgumentRenderer<T> implements ArgumentRenderer {
+
+    private final Class<T> type;
+
+    protected RequestBoundArgumentRenderer(Class<T> type) {
+        this.type = type;
+    }
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return this.type.isAssignableFrom(type);
+    }
+
+    @Override
+    public Object capture(Object argument) {
+        return describe(type.cast(argument));
+    }
+
+    @Override
+    public void render(Object argument, JsonGenerator generator) throws IOException {
+        generator.writeString(argument.toString());
+    }
+
+    /**
+     * 描述参数
+     *
+     * @param argument 参数
+     * @return 描述
+     */
+    protected abstract String describe(T argument);
+}
@@ -0,0 +1,23 @@
+package com.boot.common.audit;
+
+/**
+ * 操作日志队列满时的处理策略
+ * @author Yarns
+ */
+public enum AuditOverflowPolicy {
+
+    /**
+     * 直接丢弃
+     */
+    DROP,
+
+    /**
+     * 队列使用率超过水位线后按比例采样, 队列满时丢弃
+     */
+    SAMPLE,
+
+    /**
+     * 在超时时间内阻塞请求线程等待入队, 超时后丢弃
+     */
+    BLOCK
+}
@@ -0,0 +1,138 @@
+package com.boot.common.audit;
+
+import com.boot.common.properties.AuditProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 操作日志异步管道
+ * <p>
+ * 请求线程只负责把 {@link AuditRecord} 放入有界队列, 由单独的消费线程批量取出交给 {@link AuditSink} 写出
+ * @author Yarns
+ */
+@Slf4j
+public class AuditPipeline implements SmartLifecycle {
+
+    private final AuditProperties properties;
+    private final AuditSink sink;
+    private final BlockingQueue<AuditRecord> queue;
+    private final int sampleThreshold;
+
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    public AuditPipeline(AuditProperties properties, AuditSink sink) {
+        this.properties = properties;
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.sampleThreshold = (int) (properties.getQueueCapacity() * properties.getSampleWatermark());
+    }
+
+    /**
+     * 提交一条记录, 按照配置的策略处理队列满的情况
+     *
+     * @param record 记录
+     * @return 是否入队
+     */
+    public boolean submit(AuditRecord record) {
+        switch (properties.getOverflowPolicy()) {
+            case BLOCK:
+                try {
+                    if (queue.offer(record, properties.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                break;
+            case SAMPLE:
+                if (queue.size() >= sampleThreshold
+                        && sampleCounter.incrementAndGet() % Math.max(1, properties.getSampleRate()) != 0) {
+                    break;
+                }
+                if (queue.offer(record)) {
+                    return true;
+                }
+                break;
+            default:
+                if (queue.offer(record)) {
+                    return true;
+                }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * @return 因队列满被丢弃(含采样丢弃)的记录数
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return 当前积压数量
+     */
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    private void consume() {
+        List<AuditRecord> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditRecord first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                sink.write(batch);
+            } catch (InterruptedException e) {
+                // 停机时被中断, 继续把剩余记录写完
+                running = false;
+            } catch (Exception e) {
+                log.warn("操作日志写出失败: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        consumer = new Thread(this::consume, "Audit-Consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            consumer.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("停机时仍有{}条操作日志未写出", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
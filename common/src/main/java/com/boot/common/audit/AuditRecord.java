@@ -0,0 +1,47 @@
+package com.boot.common.audit;
+
+import com.boot.common.aspect.render.ArgumentRenderer;
+import lombok.Value;
+
+/**
+ * 操作日志记录, 在请求线程上采集, 交由 {@link AuditPipeline} 异步写出
+ * <p>
+ * 入队前 args 与 result 已固定: 与请求绑定的对象(request/response/文件)由 {@link ArgumentRenderer#capture(Object)} 转换为快照,
+ * 字符串、数字、枚举、java.time 等不可变值保留引用在消费线程序列化, 其他对象由
+ * {@link com.boot.common.aspect.render.ArgumentWriter#freeze(Object, ArgumentRenderer)} 在请求线程上序列化为有长度限制的 json;
+ * args 是独立的数组, 不与 joinPoint 共享
+ * @author Yarns
+ */
+@Value
+public class AuditRecord {
+
+    String ip;
+
+    String username;
+
+    String operation;
+
+    String className;
+
+    String methodName;
+
+    String[] paramNames;
+
+    ArgumentRenderer[] renderers;
+
+    Object[] args;
+
+    Object result;
+
+    /**
+     * 开始时间(毫秒)
+     */
+    long startTime;
+
+    /**
+     * 耗时(毫秒)
+     */
+    long cost;
+
+    Throwable error;
+}
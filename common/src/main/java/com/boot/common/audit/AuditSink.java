@@ -0,0 +1,18 @@
+package com.boot.common.audit;
+
+import java.util.List;
+
+/**
+ * 操作日志输出端, 仅由 {@link AuditPipeline} 的消费线程调用
+ * @author Yarns
+ */
+@FunctionalInterface
+public interface AuditSink {
+
+    /**
+     * 批量写出
+     *
+     * @param records 本批记录, 调用结束后会被复用, 不要持有引用
+     */
+    void write(List<AuditRecord> records);
+}
@@ -0,0 +1,69 @@
+package com.boot.common.audit;
+
+import com.boot.common.aspect.render.ArgumentWriter;
+import com.boot.common.constant.Constants;
+import com.boot.common.utils.AddressUtils;
+import com.boot.common.utils.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 默认输出端: 每条记录输出为 monitor 日志中的一行
+ * @author Yarns
+ */
+public class LogAuditSink implements AuditSink {
+
+    private final Logger logger = LoggerFactory.getLogger("monitor");
+
+    /**
+     * 只在消费线程上使用, 复用以减少分配
+     */
+    private final StringBuilder buffer = new StringBuilder(512);
+
+    private final ArgumentWriter argumentWriter;
+
+    public LogAuditSink(ArgumentWriter argumentWriter) {
+        this.argumentWriter = argumentWriter;
+    }
+
+    @Override
+    public void write(List<AuditRecord> records) {
+        for (AuditRecord record : records) {
+            String line = format(record);
+            if (record.getError() == null) {
+                logger.info(line);
+            } else {
+                logger.error(line, record.getError());
+            }
+        }
+    }
+
+    protected String format(AuditRecord record) {
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        sb.append("IP:").append(record.getIp())
+                .append(" 操作人:").append(record.getUsername())
+                .append(" 操作时间:").append(DateUtils.getDateFormat(new Date(record.getStartTime()), DateUtils.FULL_TIME_SPLIT_PATTERN))
+                .append(" 耗时:").append(record.getCost()).append("ms")
+                .append(" 操作内容:").append(record.getOperation())
+                .append(" 方法:").append(record.getClassName()).append('.').append(record.getMethodName()).append("()")
+                .append(" 参数:").append(argumentWriter.writeArguments(record.getParamNames(), record.getArgs(), record.getRenderers()));
+        if (record.getError() != null) {
+            sb.append(" 异常信息:").append(record.getError().getMessage());
+        } else {
+            sb.append(" 返回值:").append(argumentWriter.writeValue(record.getResult()));
+        }
+        sb.append(" 地址:").append(address(record.getIp()));
+        return sb.toString();
+    }
+
+    private String address(String ip) {
+        if (ip == null || Constants.LOCALHOST_IP.equals(ip)) {
+            return "本地";
+        }
+        return AddressUtils.getCityInfo(ip.trim());
+    }
+}
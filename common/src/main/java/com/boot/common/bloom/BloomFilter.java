@@ -0,0 +1,28 @@
+package com.boot.common.bloom;
+
+import java.util.Collection;
+
+/**
+ * 布隆过滤器: mightContain 为 false 时一定不存在, 为 true 时可能存在
+ * @author Yarns
+ */
+public interface BloomFilter {
+
+    /**
+     * @param value 值
+     * @return false 表示一定不存在
+     */
+    boolean mightContain(String value);
+
+    /**
+     * @param value 值
+     */
+    void put(String value);
+
+    /**
+     * 批量写入
+     *
+     * @param values 值
+     */
+    void putAll(Collection<String> values);
+}
@@ -0,0 +1,26 @@
+package com.boot.common.bloom;
+
+/**
+ * 启动时从数据源加载全部已存在的值, 实现为 bean 即可, 通过 {@link #getName()} 与过滤器对应
+ * <pre>
+ *   public void load(BloomFilter filter) {
+ *       // 按主键分页查询, 每页调用一次 putAll
+ *   }
+ * </pre>
+ * 加载完成前过滤器不拦截任何请求
+ * @author Yarns
+ */
+public interface BloomFilterLoader {
+
+    /**
+     * @return 过滤器名称
+     */
+    String getName();
+
+    /**
+     * 写入全部已存在的值
+     *
+     * @param filter 过滤器
+     */
+    void load(BloomFilter filter);
+}
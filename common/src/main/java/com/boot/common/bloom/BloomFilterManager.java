@@ -0,0 +1,202 @@
+package com.boot.common.bloom;
+
+import com.boot.common.helper.RedisHelper;
+import com.boot.common.properties.BloomFilterProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 布隆过滤器管理, 启动时在后台线程中通过 {@link BloomFilterLoader} 加载
+ * <p>
+ * 过滤器在加载完成前, 以及 redis 异常时都判断为可能存在, 只会少拦截不会误拦截; 新增数据后需要调用 {@link #put(String, Object)}
+ * <p>
+ * 本地过滤器的 put 通过 redis 频道广播到其他节点, 消息格式: 节点id\n过滤器名称\n值
+ * @author Yarns
+ */
+@Slf4j
+public class BloomFilterManager implements SmartInitializingSingleton, MessageListener {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final BloomFilterProperties properties;
+
+    private final Map<String, BloomFilterLoader> loaders = new LinkedHashMap<>();
+
+    private final Map<String, Holder> filters = new ConcurrentHashMap<>();
+
+    private final byte[] channel;
+
+    public BloomFilterManager(RedisTemplate<String, Object> redisTemplate, BloomFilterProperties properties,
+                              List<BloomFilterLoader> loaders) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.channel = properties.getChannel().getBytes(StandardCharsets.UTF_8);
+        for (BloomFilterLoader loader : loaders) {
+            this.loaders.put(loader.getName(), loader);
+        }
+        for (Map.Entry<String, BloomFilterProperties.Spec> entry : properties.getFilters().entrySet()) {
+            filters.put(entry.getKey(), new Holder(create(entry.getKey(), entry.getValue())));
+        }
+        for (String name : this.loaders.keySet()) {
+            filters.computeIfAbsent(name, n -> new Holder(create(n, new BloomFilterProperties.Spec())));
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Thread thread = new Thread(this::loadAll, "Bloom-Loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @param name  过滤器名称
+     * @param value 值
+     * @return false 表示一定不存在; 过滤器不存在或未加载完成时为 true
+     */
+    public boolean mightContain(String name, Object value) {
+        Holder holder = filters.get(name);
+        if (holder == null || !holder.ready || value == null) {
+            return true;
+        }
+        try {
+            return holder.filter.mightContain(String.valueOf(value));
+        } catch (Exception e) {
+            log.error("布隆过滤器{}查询异常", name, e);
+            return true;
+        }
+    }
+
+    /**
+     * 新增数据后写入, 否则新数据会被拦截; 本地过滤器同时通知其他节点写入
+     *
+     * @param name  过滤器名称
+     * @param value 值
+     */
+    public void put(String name, Object value) {
+        Holder holder = filters.get(name);
+        if (holder == null) {
+            throw new IllegalArgumentException("未配置布隆过滤器: " + name);
+        }
+        String text = String.valueOf(value);
+        holder.filter.put(text);
+        if (holder.filter instanceof LocalBloomFilter) {
+            publish(name, text);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : body.indexOf(SEPARATOR, first + 1);
+        if (second < 0 || (nodeId.length() == first && nodeId.regionMatches(0, body, 0, first))) {
+            return;
+        }
+        Holder holder = filters.get(body.substring(first + 1, second));
+        if (holder != null && holder.filter instanceof LocalBloomFilter) {
+            holder.filter.put(body.substring(second + 1));
+        }
+    }
+
+    private void publish(String name, String value) {
+        byte[] message = (nodeId + SEPARATOR + name + SEPARATOR + value).getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+        } catch (Exception e) {
+            log.warn("布隆过滤器{}写入通知发送失败", name, e);
+        }
+    }
+
+    /**
+     * @param name 过滤器名称
+     * @return 过滤器, 不存在时为 null
+     */
+    public BloomFilter getFilter(String name) {
+        Holder holder = filters.get(name);
+        return holder == null ? null : holder.filter;
+    }
+
+    /**
+     * 没有 loader 的过滤器由业务代码写入全部数据后调用, 之后才开始拦截
+     *
+     * @param name 过滤器名称
+     */
+    public void markLoaded(String name) {
+        Holder holder = filters.get(name);
+        if (holder == null) {
+            throw new IllegalArgumentException("未配置布隆过滤器: " + name);
+        }
+        if (holder.filter instanceof RedisBloomFilter) {
+            ((RedisBloomFilter) holder.filter).markLoaded();
+        }
+        holder.ready = true;
+    }
+
+    private void loadAll() {
+        for (Map.Entry<String, Holder> entry : filters.entrySet()) {
+            String name = entry.getKey();
+            Holder holder = entry.getValue();
+            try {
+                load(name, holder);
+            } catch (Exception e) {
+                log.error("布隆过滤器{}加载失败, 不拦截任何请求", name, e);
+            }
+        }
+    }
+
+    private void load(String name, Holder holder) {
+        BloomFilter filter = holder.filter;
+        // redis 过滤器由任意节点完整加载一次即可, 标记在加载完成后才写入
+        if (filter instanceof RedisBloomFilter && ((RedisBloomFilter) filter).isLoaded()) {
+            holder.ready = true;
+            log.info("布隆过滤器{}已在redis中加载", name);
+            return;
+        }
+        BloomFilterLoader loader = loaders.get(name);
+        if (loader == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        loader.load(filter);
+        if (filter instanceof RedisBloomFilter) {
+            ((RedisBloomFilter) filter).markLoaded();
+        }
+        holder.ready = true;
+        log.info("布隆过滤器{}加载完成, 耗时{}ms", name, System.currentTimeMillis() - start);
+    }
+
+    private BloomFilter create(String name, BloomFilterProperties.Spec spec) {
+        if (spec.getType() == BloomFilterType.REDIS) {
+            return new RedisBloomFilter(redisTemplate, RedisHelper.getRedisPrefix() + properties.getKeyPrefix() + name,
+                    spec.getExpectedInsertions(), spec.getFpp(), properties.getBatchSize());
+        }
+        return new LocalBloomFilter(spec.getExpectedInsertions(), spec.getFpp());
+    }
+
+    private static final class Holder {
+
+        final BloomFilter filter;
+
+        volatile boolean ready;
+
+        Holder(BloomFilter filter) {
+            this.filter = filter;
+        }
+    }
+}
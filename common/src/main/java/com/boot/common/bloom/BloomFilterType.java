@@ -0,0 +1,18 @@
+package com.boot.common.bloom;
+
+/**
+ * 布隆过滤器的存储位置
+ * @author Yarns
+ */
+public enum BloomFilterType {
+
+    /**
+     * 本地内存 bitset, 每个节点各自加载, 查询不访问 redis; 新增的值通过 redis 频道广播到其他节点
+     */
+    LOCAL,
+
+    /**
+     * redis bitmap, 所有节点共用, 新增的值对所有节点立即可见
+     */
+    REDIS
+}
@@ -0,0 +1,37 @@
+package com.boot.common.bloom;
+
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * 基于 guava 的本地布隆过滤器, 线程安全; 写入数量超过 expectedInsertions 后误判率上升
+ * @author Yarns
+ */
+public class LocalBloomFilter implements BloomFilter {
+
+    private final com.google.common.hash.BloomFilter<CharSequence> filter;
+
+    public LocalBloomFilter(long expectedInsertions, double fpp) {
+        this.filter = com.google.common.hash.BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                expectedInsertions, fpp);
+    }
+
+    @Override
+    public boolean mightContain(String value) {
+        return filter.mightContain(value);
+    }
+
+    @Override
+    public void put(String value) {
+        filter.put(value);
+    }
+
+    @Override
+    public void putAll(Collection<String> values) {
+        for (String value : values) {
+            filter.put(value);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.boot.common.bloom;
+
+import com.google.common.collect.Iterables;
+import com.google.common.hash.Hashing;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于 redis bitmap 的布隆过滤器, 每次查询或写入的 k 个 GETBIT/SETBIT 在一次 pipeline 中发出
+ * <p>
+ * 位数由 expectedInsertions 与 fpp 计算, 最多 2^32 位(512MB); 哈希方式与 guava 相同(murmur3_128 双重哈希)
+ * @author Yarns
+ */
+@SuppressWarnings("unchecked")
+public class RedisBloomFilter implements BloomFilter {
+
+    /**
+     * redis bitmap 的最大位数
+     */
+    private static final long MAX_BITS = 1L << 32;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final String key;
+
+    private final byte[] rawKey;
+
+    private final long numBits;
+
+    private final int numHashFunctions;
+
+    private final int batchSize;
+
+    public RedisBloomFilter(RedisTemplate<String, Object> redisTemplate, String key, long expectedInsertions,
+                            double fpp, int batchSize) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.rawKey = ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+        this.numBits = Math.min(MAX_BITS, Math.max(64, (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)))));
+        this.numHashFunctions = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public boolean mightContain(String value) {
+        long[] offsets = offsets(value);
+        List<Object> bits = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long offset : offsets) {
+                connection.stringCommands().getBit(rawKey, offset);
+            }
+            return null;
+        });
+        for (Object bit : bits) {
+            if (!Boolean.TRUE.equals(bit)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void put(String value) {
+        putAll(Collections.singletonList(value));
+    }
+
+    /**
+     * 每 batchSize 个值一次 pipeline
+     *
+     * @param values 值
+     */
+    @Override
+    public void putAll(Collection<String> values) {
+        for (List<String> chunk : Iterables.partition(values, batchSize)) {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String value : chunk) {
+                    for (long offset : offsets(value)) {
+                        connection.stringCommands().setBit(rawKey, offset, true);
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * @return 是否已有节点完整加载过
+     */
+    public boolean isLoaded() {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(loadedKey()));
+    }
+
+    /**
+     * 加载完成后标记, 其他节点启动时不再重复加载
+     */
+    public void markLoaded() {
+        redisTemplate.opsForValue().set(loadedKey(), System.currentTimeMillis());
+    }
+
+    /**
+     * 删除 bitmap, 用于数据大量删除后重建
+     */
+    public void clear() {
+        redisTemplate.unlink(Arrays.asList(key, loadedKey()));
+    }
+
+    private String loadedKey() {
+        return key + ":loaded";
+    }
+
+    private long[] offsets(String value) {
+        byte[] hash = Hashing.murmur3_128().hashString(value, StandardCharsets.UTF_8).asBytes();
+        ByteBuffer buffer = ByteBuffer.wrap(hash).order(ByteOrder.LITTLE_ENDIAN);
+        long hash1 = buffer.getLong();
+        long hash2 = buffer.getLong();
+        long[] offsets = new long[numHashFunctions];
+        long combinedHash = hash1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            offsets[i] = (combinedHash & Long.MAX_VALUE) % numBits;
+            combinedHash += hash2;
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,28 @@
+package com.boot.common.cache;
+
+/**
+ * redis 值的序列化方式
+ * @author Yarns
+ */
+public enum SerializerType {
+
+    /**
+     * jackson json, 带类型信息
+     */
+    JSON,
+
+    /**
+     * jdk 序列化, 值必须实现 Serializable
+     */
+    JDK,
+
+    /**
+     * jackson smile 二进制格式, 类型信息使用别名
+     */
+    SMILE,
+
+    /**
+     * jackson cbor 二进制格式, 类型信息使用别名
+     */
+    CBOR
+}
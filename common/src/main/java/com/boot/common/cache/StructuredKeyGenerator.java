@@ -0,0 +1,240 @@
+package com.boot.common.cache;
+
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存 key 生成: 类名.方法名:参数1,参数2
+ * <p>
+ * 类名.方法名 部分按方法预先生成, 重载方法追加参数类型的摘要; 参数按类型加上一个字符的标记后写入,
+ * 字符串中的分隔符转义, 不同类型或不同拆分方式的参数不会得到相同的 key.
+ * 参数部分超过 maxKeyLength 时替换为 murmur3_128 摘要, 避免过长的 key 占用 redis 内存.
+ * 未重写 toString 的参数按 类名@hashCode 写入(与 Object.toString 一致), 每个类型只告警一次;
+ * strict 模式下改为在生成前缀或 key 时报错
+ * @author Yarns
+ */
+@Slf4j
+public class StructuredKeyGenerator implements KeyGenerator {
+
+    private static final char ARGS_SEPARATOR = ':';
+
+    private static final char SEPARATOR = ',';
+
+    private static final char ESCAPE = '\\';
+
+    private static final int MAX_BUFFER_CAPACITY = 4096;
+
+    /**
+     * 其他类型的参数是否重写了 toString, 按类缓存, 不在每次生成 key 时反射查找
+     */
+    private static final ClassValue<Boolean> OVERRIDES_TO_STRING = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            Method toString = ReflectionUtils.findMethod(type, "toString");
+            return toString != null && toString.getDeclaringClass() != Object.class;
+        }
+    };
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final Map<Class<?>, Map<Method, String>> prefixes = new ConcurrentHashMap<>();
+
+    /**
+     * 已告警过的未重写 toString 的类型
+     */
+    private final Set<Class<?>> warned = ConcurrentHashMap.newKeySet();
+
+    private final int maxKeyLength;
+
+    private final boolean strict;
+
+    /**
+     * @param maxKeyLength 参数部分超过该长度时使用摘要
+     */
+    public StructuredKeyGenerator(int maxKeyLength) {
+        this(maxKeyLength, false);
+    }
+
+    /**
+     * @param maxKeyLength 参数部分超过该长度时使用摘要
+     * @param strict       参数类型未重写 toString 时是否报错, 默认只告警
+     */
+    public StructuredKeyGenerator(int maxKeyLength, boolean strict) {
+        this.maxKeyLength = maxKeyLength;
+        this.strict = strict;
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        String prefix = prefix(ClassUtils.getUserClass(target), method);
+        if (params.length == 0) {
+            return prefix;
+        }
+        StringBuilder sb = buffers.get();
+        sb.setLength(0);
+        try {
+            for (int i = 0; i < params.length; i++) {
+                if (i > 0) {
+                    sb.append(SEPARATOR);
+                }
+                append(sb, params[i]);
+            }
+            if (sb.length() > maxKeyLength) {
+                String hash = Hashing.murmur3_128().hashUnencodedChars(sb).toString();
+                return prefix + ARGS_SEPARATOR + 'h' + hash;
+            }
+            return prefix + ARGS_SEPARATOR + sb;
+        } finally {
+            if (sb.capacity() > MAX_BUFFER_CAPACITY) {
+                buffers.remove();
+            }
+        }
+    }
+
+    private String prefix(Class<?> targetClass, Method method) {
+        Map<Method, String> methods = prefixes.get(targetClass);
+        String prefix = methods == null ? null : methods.get(method);
+        if (prefix != null) {
+            return prefix;
+        }
+        return prefixes.computeIfAbsent(targetClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> buildPrefix(targetClass, m));
+    }
+
+    private String buildPrefix(Class<?> targetClass, Method method) {
+        validate(method);
+        String prefix = targetClass.getName() + '.' + method.getName();
+        long overloads = Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(targetClass))
+                .filter(m -> m.getName().equals(method.getName()))
+                .count();
+        if (overloads <= 1) {
+            return prefix;
+        }
+        StringBuilder signature = new StringBuilder();
+        for (Class<?> type : method.getParameterTypes()) {
+            signature.append(type.getName()).append(SEPARATOR);
+        }
+        return prefix + '~' + Integer.toHexString(signature.toString().hashCode());
+    }
+
+    /**
+     * 生成前缀时检查一次参数类型: 声明为 final 类且未重写 toString 时, 任何实参都只能按 hashCode 生成 key,
+     * strict 模式下直接报错, 否则告警; 其他类型的实参可能是重写了 toString 的子类, 生成 key 时再检查
+     */
+    private void validate(Method method) {
+        for (Class<?> type : method.getParameterTypes()) {
+            if (Modifier.isFinal(type.getModifiers()) && !type.isPrimitive() && !type.isArray() && !isStructured(type)
+                    && !OVERRIDES_TO_STRING.get(type)) {
+                if (strict) {
+                    throw new IllegalStateException("无法生成缓存key, 参数类型未重写toString: " + type.getName()
+                            + ", 方法: " + method);
+                }
+                warn(type);
+            }
+        }
+    }
+
+    /**
+     * @return 按类型写入, 不依赖 toString
+     */
+    private static boolean isStructured(Class<?> type) {
+        return CharSequence.class.isAssignableFrom(type) || Number.class.isAssignableFrom(type)
+                || type == Boolean.class || type == Character.class || type.isEnum()
+                || Date.class.isAssignableFrom(type) || type == UUID.class || Iterable.class.isAssignableFrom(type);
+    }
+
+    private void append(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append('n');
+        } else if (value instanceof CharSequence) {
+            sb.append('s');
+            escape(sb, (CharSequence) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            sb.append('i').append(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            sb.append((Boolean) value ? "bt" : "bf");
+        } else if (value instanceof Double || value instanceof Float) {
+            sb.append('d').append(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            sb.append('D').append(((BigDecimal) value).stripTrailingZeros().toPlainString());
+        } else if (value instanceof BigInteger) {
+            sb.append('I').append(value);
+        } else if (value instanceof Character) {
+            sb.append('c');
+            escape(sb, String.valueOf(value));
+        } else if (value instanceof Enum) {
+            sb.append('e').append(((Enum<?>) value).name());
+        } else if (value instanceof Date) {
+            sb.append('t').append(((Date) value).getTime());
+        } else if (value instanceof UUID) {
+            sb.append('u').append(value);
+        } else if (value instanceof Iterable) {
+            sb.append('[');
+            boolean first = true;
+            for (Object element : (Iterable<?>) value) {
+                if (!first) {
+                    sb.append(SEPARATOR);
+                }
+                append(sb, element);
+                first = false;
+            }
+            sb.append(']');
+        } else if (value.getClass().isArray()) {
+            sb.append('[');
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    sb.append(SEPARATOR);
+                }
+                append(sb, Array.get(value, i));
+            }
+            sb.append(']');
+        } else {
+            Class<?> type = value.getClass();
+            if (OVERRIDES_TO_STRING.get(type)) {
+                sb.append('o');
+                escape(sb, value.toString());
+                return;
+            }
+            if (strict) {
+                throw new IllegalStateException("无法生成缓存key, 参数类型未重写toString: " + type.getName());
+            }
+            warn(type);
+            sb.append('h');
+            escape(sb, type.getName());
+            sb.append('@').append(Integer.toHexString(value.hashCode()));
+        }
+    }
+
+    private void warn(Class<?> type) {
+        if (warned.add(type)) {
+            log.warn("缓存key参数类型未重写toString, 按 类名@hashCode 生成key, 未重写 equals/hashCode 时不会命中缓存: {}",
+                    type.getName());
+        }
+    }
+
+    private static void escape(StringBuilder sb, CharSequence value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ESCAPE || c == SEPARATOR || c == '[' || c == ']') {
+                sb.append(ESCAPE);
+            }
+            sb.append(c);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.boot.common.cache;
+
+import com.boot.common.properties.CacheManagerProperties;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按缓存配置调整写入的过期时间
+ * <ul>
+ *     <li>空值使用 nullValueTtl, 不超过正常的过期时间</li>
+ *     <li>过期时间随机增加 [0, ttl * ttlJitter], 同一批写入的 key 分散过期</li>
+ * </ul>
+ * @author Yarns
+ */
+public class TtlRedisCacheWriter implements RedisCacheWriter {
+
+    /**
+     * 与 RedisCache 保存空值的方式一致
+     */
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final RedisCacheWriter delegate;
+
+    private final CacheManagerProperties properties;
+
+    private final Map<String, CacheManagerProperties.Spec> specs = new ConcurrentHashMap<>();
+
+    public TtlRedisCacheWriter(RedisCacheWriter delegate, CacheManagerProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, adjust(name, value, ttl));
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.putIfAbsent(name, key, value, adjust(name, value, ttl));
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegate.remove(name, key);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegate.clean(name, pattern);
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new TtlRedisCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector), properties);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    Duration adjust(String name, byte[] value, Duration ttl) {
+        CacheManagerProperties.Spec spec = specs.computeIfAbsent(name, properties::resolve);
+        Duration nullValueTtl = spec.getNullValueTtl();
+        if (isPositive(nullValueTtl) && Arrays.equals(BINARY_NULL_VALUE, value)
+                && (!isPositive(ttl) || nullValueTtl.compareTo(ttl) < 0)) {
+            ttl = nullValueTtl;
+        }
+        if (!isPositive(ttl) || spec.getTtlJitter() <= 0) {
+            return ttl;
+        }
+        long bound = (long) (ttl.toMillis() * spec.getTtlJitter());
+        return bound <= 0 ? ttl : ttl.plusMillis(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return duration != null && !duration.isZero() && !duration.isNegative();
+    }
+}
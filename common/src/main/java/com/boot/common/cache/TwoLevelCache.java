@@ -0,0 +1,337 @@
+package com.boot.common.cache;
+
+import com.boot.common.properties.CacheManagerProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 二级缓存: 进程内一级缓存 + redis
+ * <p>
+ * 读取先查一级缓存, 未命中再查 redis 并回填; 写入与删除先操作 redis, 再清除本地一级缓存并广播给其他节点.
+ * 一级缓存以完整的 redis key 为键, 空值以 NullValue 保存
+ * <p>
+ * {@link #get(Object, Callable)} (即 @Cacheable(sync = true)) 未命中时:
+ * <ul>
+ *     <li>singleFlight: 本节点同一个 key 只有一个线程加载, 其余线程等待同一个结果</li>
+ *     <li>loadLock: 加载前获取 redis 锁, 未获取到的节点轮询等待结果</li>
+ *     <li>earlyRefreshBeta: 命中时按 XFetch 算法以一定概率在异步线程池中提前刷新, 过期前就已有新值</li>
+ * </ul>
+ * @author Yarns
+ */
+@Slf4j
+public class TwoLevelCache extends RedisCache {
+
+    private static final long LOAD_LOCK_POLL_MILLIS = 50;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    private final CacheManagerProperties.Spec spec;
+
+    /**
+     * 为 null 时不使用一级缓存
+     */
+    private final Cache<String, Object> local;
+
+    /**
+     * 每次失效加一; 从 redis 读取期间发生过失效则不回填, 避免旧值覆盖失效
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 正在加载或刷新的 key
+     */
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点加载过的 key 的加载耗时与过期时间, 用于提前刷新; 不提前刷新时为 null
+     */
+    private final Cache<String, LoadStats> loadStats;
+
+    protected TwoLevelCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfig,
+                            CacheManagerProperties.Spec spec, Cache<String, Object> local,
+                            TwoLevelCacheManager cacheManager) {
+        super(name, cacheWriter, cacheConfig);
+        this.spec = spec;
+        this.local = local;
+        this.cacheManager = cacheManager;
+        this.loadStats = spec.getEarlyRefreshBeta() > 0 && isPositive(cacheConfig.getTtl())
+                ? CacheBuilder.newBuilder()
+                .maximumSize(spec.getLocal().getMaximumSize())
+                .expireAfterWrite(cacheConfig.getTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .build()
+                : null;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        if (local == null) {
+            return super.lookup(key);
+        }
+        String cacheKey = createCacheKey(key);
+        Object value = local.getIfPresent(cacheKey);
+        if (value != null) {
+            return value;
+        }
+        long version = invalidations.get();
+        value = super.lookup(key);
+        if (value != null && version == invalidations.get()) {
+            local.put(cacheKey, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // 命中时不进入 RedisCache 的同步方法
+        ValueWrapper result = get(key);
+        if (result != null) {
+            if (loadStats != null) {
+                maybeRefresh(key, valueLoader);
+            }
+            return (T) result.get();
+        }
+        if (!spec.getSingleFlight()) {
+            return load(key, createCacheKey(key), valueLoader);
+        }
+        String cacheKey = createCacheKey(key);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = loading.putIfAbsent(cacheKey, future);
+        if (existing != null) {
+            try {
+                return (T) await(existing);
+            } catch (RefreshRejectedException e) {
+                // 等到的是被线程池拒绝的提前刷新, 自己加载
+                return load(key, cacheKey, valueLoader);
+            }
+        }
+        try {
+            T value = load(key, cacheKey, valueLoader);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(cacheKey, future);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        invalidate(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        invalidate(key);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        clearLocal();
+        cacheManager.publish(getName(), null);
+    }
+
+    /**
+     * 只清除本节点一级缓存中的 key
+     * @param cacheKey 完整的 redis key
+     */
+    public void evictLocal(String cacheKey) {
+        invalidations.incrementAndGet();
+        if (local != null) {
+            local.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * 只清空本节点的一级缓存
+     */
+    public void clearLocal() {
+        invalidations.incrementAndGet();
+        if (local != null) {
+            local.invalidateAll();
+        }
+    }
+
+    /**
+     * @return 一级缓存, 未开启时为 null
+     */
+    public Cache<String, Object> getLocalCache() {
+        return local;
+    }
+
+    private void invalidate(Object key) {
+        String cacheKey = createCacheKey(key);
+        evictLocal(cacheKey);
+        cacheManager.publish(getName(), cacheKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Object key, String cacheKey, Callable<T> valueLoader) {
+        // 等待期间其他线程可能已经加载完成
+        ValueWrapper result = get(key);
+        if (result != null) {
+            return (T) result.get();
+        }
+        if (!spec.getLoadLock()) {
+            return loadAndPut(key, cacheKey, valueLoader);
+        }
+        String lockKey = cacheKey + ":load";
+        String token = UUID.randomUUID().toString();
+        Duration timeout = spec.getLoadLockTimeout();
+        if (cacheManager.tryLock(lockKey, token, timeout)) {
+            try {
+                return loadAndPut(key, cacheKey, valueLoader);
+            } finally {
+                cacheManager.unlock(lockKey, token);
+            }
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(LOAD_LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            result = get(key);
+            if (result != null) {
+                return (T) result.get();
+            }
+        }
+        return loadAndPut(key, cacheKey, valueLoader);
+    }
+
+    private <T> T loadAndPut(Object key, String cacheKey, Callable<T> valueLoader) {
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        if (loadStats != null) {
+            long now = System.currentTimeMillis();
+            loadStats.put(cacheKey, new LoadStats(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    now + getCacheConfiguration().getTtl().toMillis()));
+        }
+        return value;
+    }
+
+    /**
+     * XFetch: now - delta * beta * ln(random) >= expiry 时刷新, 越接近过期、加载越慢越容易触发
+     */
+    private void maybeRefresh(Object key, Callable<?> valueLoader) {
+        String cacheKey = createCacheKey(key);
+        LoadStats stats = loadStats.getIfPresent(cacheKey);
+        Executor executor = cacheManager.getRefreshExecutor();
+        if (stats == null || executor == null) {
+            return;
+        }
+        double gap = -stats.delta * spec.getEarlyRefreshBeta() * Math.log(ThreadLocalRandom.current().nextDouble());
+        if (System.currentTimeMillis() + gap < stats.expiry) {
+            return;
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (loading.putIfAbsent(cacheKey, future) != null) {
+            return;
+        }
+        // 避免刷新完成前再次触发
+        loadStats.invalidate(cacheKey);
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(loadAndPut(key, cacheKey, valueLoader));
+                } catch (Throwable e) {
+                    log.warn("缓存提前刷新失败: {} {}", getName(), cacheKey, e);
+                    future.completeExceptionally(e);
+                } finally {
+                    loading.remove(cacheKey, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(cacheKey, future);
+            future.completeExceptionally(RefreshRejectedException.INSTANCE);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return duration != null && !duration.isZero() && !duration.isNegative();
+    }
+
+    /**
+     * 提前刷新被线程池拒绝, 已在等待的线程改为自己加载
+     */
+    private static final class RefreshRejectedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        static final RefreshRejectedException INSTANCE = new RefreshRejectedException();
+
+        private RefreshRejectedException() {
+            super("缓存提前刷新被拒绝", null, false, false);
+        }
+    }
+
+    private static final class LoadStats {
+
+        /**
+         * 加载耗时(毫秒)
+         */
+        final long delta;
+
+        /**
+         * 预计过期时间(毫秒)
+         */
+        final long expiry;
+
+        LoadStats(long delta, long expiry) {
+            this.delta = delta;
+            this.expiry = expiry;
+        }
+    }
+}
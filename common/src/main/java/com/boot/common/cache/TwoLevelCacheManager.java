@@ -0,0 +1,175 @@
+package com.boot.common.cache;
+
+import com.boot.common.properties.CacheManagerProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二级缓存管理, 创建 {@link TwoLevelCache} 并负责节点间的一级缓存失效通知
+ * <p>
+ * 通知格式为 节点id\n缓存名称\n[key], key 为空表示清空整个缓存; 本节点发出的通知忽略.
+ * 通知基于 redis pub/sub, 不保证送达, 一级缓存的过期时间作为兜底
+ * @author Yarns
+ */
+@Slf4j
+public class TwoLevelCacheManager extends RedisCacheManager implements MessageListener {
+
+    private static final char SEPARATOR = '\n';
+
+    private static final byte[] UNLOCK_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('del', KEYS[1]) else return 0 end").getBytes(StandardCharsets.UTF_8);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RedisCacheWriter cacheWriter;
+
+    private final RedisConnectionFactory connectionFactory;
+
+    private final CacheManagerProperties properties;
+
+    private final byte[] channel;
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    private volatile Executor refreshExecutor;
+
+    public TwoLevelCacheManager(RedisCacheWriter cacheWriter, RedisConnectionFactory connectionFactory,
+                                RedisCacheConfiguration defaultCacheConfiguration,
+                                Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                CacheManagerProperties properties) {
+        super(cacheWriter, defaultCacheConfiguration, initialCacheConfigurations, true);
+        this.cacheWriter = cacheWriter;
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+        this.channel = properties.getInvalidationChannel().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfig) {
+        CacheManagerProperties.Spec spec = properties.resolve(name);
+        TwoLevelCache cache = new TwoLevelCache(name, cacheWriter, cacheConfig, spec, createLocalCache(spec.getLocal()), this);
+        caches.put(name, cache);
+        return cache;
+    }
+
+    /**
+     * 广播失效通知
+     * @param cacheName 缓存名称
+     * @param cacheKey  完整的 redis key, 为 null 表示清空
+     */
+    void publish(String cacheName, String cacheKey) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache == null || cache.getLocalCache() == null) {
+            return;
+        }
+        String message = nodeId + SEPARATOR + cacheName + SEPARATOR + (cacheKey == null ? "" : cacheKey);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.publish(channel, message.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.warn("缓存失效通知发送失败: {}", cacheName, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : body.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            log.warn("无法解析的缓存失效通知: {}", body);
+            return;
+        }
+        if (nodeId.regionMatches(0, body, 0, first) && nodeId.length() == first) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(body.substring(first + 1, second));
+        if (cache == null) {
+            return;
+        }
+        if (second == body.length() - 1) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(body.substring(second + 1));
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return 提前刷新使用的线程池, 为 null 时不提前刷新
+     */
+    public Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+
+    public void setRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * 获取加载锁
+     * @param lockKey 锁的 key
+     * @param token   持有者标识
+     * @param timeout 过期时间
+     * @return 是否获取成功, redis 异常时视为获取成功, 各节点各自加载
+     */
+    boolean tryLock(String lockKey, String token, Duration timeout) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Boolean locked = connection.stringCommands().set(lockKey.getBytes(StandardCharsets.UTF_8),
+                    token.getBytes(StandardCharsets.UTF_8), Expiration.from(timeout), RedisStringCommands.SetOption.SET_IF_ABSENT);
+            return !Boolean.FALSE.equals(locked);
+        } catch (Exception e) {
+            log.warn("缓存加载锁获取失败: {}", lockKey, e);
+            return true;
+        }
+    }
+
+    /**
+     * 只释放自己持有的加载锁
+     * @param lockKey 锁的 key
+     * @param token   持有者标识
+     */
+    void unlock(String lockKey, String token) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.scriptingCommands().eval(UNLOCK_SCRIPT, ReturnType.INTEGER, 1,
+                    lockKey.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.warn("缓存加载锁释放失败: {}", lockKey, e);
+        }
+    }
+
+    private Cache<String, Object> createLocalCache(CacheManagerProperties.Local local) {
+        if (!Boolean.TRUE.equals(local.getEnabled())) {
+            return null;
+        }
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(local.getMaximumSize())
+                .recordStats();
+        if (local.getExpireAfterWrite() != null && !local.getExpireAfterWrite().isZero()) {
+            builder.expireAfterWrite(local.getExpireAfterWrite().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.boot.common.config;
+
+import com.boot.common.aspect.render.ArgumentRenderer;
+import com.boot.common.aspect.render.ArgumentRenderers;
+import com.boot.common.aspect.render.ArgumentWriter;
+import com.boot.common.audit.AuditPipeline;
+import com.boot.common.audit.AuditSink;
+import com.boot.common.audit.LogAuditSink;
+import com.boot.common.properties.AuditProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.stream.Collectors;
+
+/**
+ * 操作日志配置
+ * @author Yarns
+ */
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfigure {
+
+    /**
+     * 参数渲染策略, 自定义的 ArgumentRenderer bean 优先于内置策略
+     * @param customRenderers
+     * @return
+     */
+    @Bean
+    public ArgumentRenderers argumentRenderers(ObjectProvider<ArgumentRenderer> customRenderers) {
+        return new ArgumentRenderers(customRenderers.orderedStream().collect(Collectors.toList()));
+    }
+
+    /**
+     * 参数与返回值序列化
+     * @param objectMapper
+     * @param argumentRenderers
+     * @param properties
+     * @return
+     */
+    @Bean
+    public ArgumentWriter argumentWriter(ObjectMapper objectMapper, ArgumentRenderers argumentRenderers, AuditProperties properties) {
+        return new ArgumentWriter(objectMapper, argumentRenderers, properties.getMaxValueLength(), properties.getMaxArgumentsLength());
+    }
+
+    /**
+     * 默认输出到 monitor 日志, 可自定义 AuditSink 覆盖
+     * @param argumentWriter
+     * @return
+     */
+    @Bean
+    @ConditionalOnMissingBean(AuditSink.class)
+    public AuditSink auditSink(ArgumentWriter argumentWriter) {
+        return new LogAuditSink(argumentWriter);
+    }
+
+    /**
+     * 操作日志异步管道
+     * @param properties
+     * @param auditSink
+     * @return
+     */
+    @Bean
+    public AuditPipeline auditPipeline(AuditProperties properties, AuditSink auditSink) {
+        return new AuditPipeline(properties, auditSink);
+    }
+}
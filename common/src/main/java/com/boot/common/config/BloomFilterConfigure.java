@@ -0,0 +1,43 @@
+package com.boot.common.config;
+
+import com.boot.common.bloom.BloomFilterLoader;
+import com.boot.common.bloom.BloomFilterManager;
+import com.boot.common.properties.BloomFilterProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.stream.Collectors;
+
+/**
+ * 布隆过滤器配置
+ * @author Yarns
+ */
+@Configuration
+@EnableConfigurationProperties(BloomFilterProperties.class)
+public class BloomFilterConfigure {
+
+    /**
+     * 关闭后 @BloomGuard 不拦截; 订阅本地过滤器的写入广播
+     * @param redisTemplate
+     * @param redisMessageListenerContainer
+     * @param properties
+     * @param loaders
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "framework.bloom", name = "enabled", matchIfMissing = true)
+    public BloomFilterManager bloomFilterManager(RedisTemplate<String, Object> redisTemplate,
+                                                 RedisMessageListenerContainer redisMessageListenerContainer,
+                                                 BloomFilterProperties properties, ObjectProvider<BloomFilterLoader> loaders) {
+        BloomFilterManager manager = new BloomFilterManager(redisTemplate, properties,
+                loaders.orderedStream().collect(Collectors.toList()));
+        redisMessageListenerContainer.addMessageListener(manager, new ChannelTopic(properties.getChannel()));
+        return manager;
+    }
+}
@@ -0,0 +1,61 @@
+package com.boot.common.config;
+
+import com.boot.common.properties.IpRegionProperties;
+import com.boot.common.region.IpRegionCache;
+import com.boot.common.region.IpRegionCacheMetrics;
+import com.boot.common.region.IpRegionReloader;
+import com.boot.common.region.IpRegionService;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ip 地区解析配置
+ * @author Yarns
+ */
+@Configuration
+@EnableConfigurationProperties(IpRegionProperties.class)
+public class IpRegionConfigure {
+
+    /**
+     * 按配置替换单例的缓存, AddressUtils 与注入的 bean 使用同一实例
+     * @param properties
+     * @return
+     */
+    @Bean
+    public IpRegionService ipRegionService(IpRegionProperties properties) {
+        IpRegionService service = IpRegionService.getInstance();
+        IpRegionProperties.Cache cache = properties.getCache();
+        service.setCache(cache.isEnabled() ? new IpRegionCache(cache.getMaximumSize(), cache.getExpireAfterWrite()) : null);
+        return service;
+    }
+
+    /**
+     * 配置了外部数据库时启动热加载
+     * @param ipRegionService
+     * @param properties
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "framework.ip-region", name = "external-path")
+    public IpRegionReloader ipRegionReloader(IpRegionService ipRegionService, IpRegionProperties properties) {
+        return new IpRegionReloader(ipRegionService, properties.getExternalPath(), properties.getReloadInterval());
+    }
+
+    /**
+     * 缓存命中率等指标, 通过 /actuator/metrics 查看
+     * @param ipRegionService
+     * @return
+     */
+    @Bean
+    public MeterBinder ipRegionCacheMetrics(IpRegionService ipRegionService) {
+        return registry -> {
+            IpRegionCache cache = ipRegionService.getCache();
+            if (cache != null) {
+                new IpRegionCacheMetrics(cache).bindTo(registry);
+            }
+        };
+    }
+}
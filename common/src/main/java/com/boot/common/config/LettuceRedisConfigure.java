@@ -3,26 +3,55 @@ package com.boot.common.config;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.boot.common.cache.SerializerType;
+import com.boot.common.cache.StructuredKeyGenerator;
+import com.boot.common.cache.TtlRedisCacheWriter;
+import com.boot.common.cache.TwoLevelCacheManager;
+import com.boot.common.constant.Constants;
+import com.boot.common.helper.AsyncRedisHelper;
+import com.boot.common.helper.RedisHelper;
+import com.boot.common.properties.CacheManagerProperties;
+import com.boot.common.properties.RedisValueProperties;
+import com.boot.common.redis.InstrumentedRedisTemplate;
+import com.boot.common.redis.RedisCommandMetrics;
+import com.boot.common.redis.RedisReplicaReads;
+import com.boot.common.serializer.BinaryRedisSerializer;
+import com.boot.common.serializer.TypeAliasRegistry;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.StringUtils;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * redis Lettuce连接池配置类
@@ -32,30 +61,78 @@ import java.time.Duration;
 @Configuration
 @EnableCaching
 @RequiredArgsConstructor
+@EnableConfigurationProperties({CacheManagerProperties.class, RedisValueProperties.class})
 public class LettuceRedisConfigure extends CachingConfigurerSupport {
 
     private final LettuceConnectionFactory lettuceConnectionFactory;
 
+    private final CacheManagerProperties cacheManagerProperties;
+
+    private final RedisValueProperties redisValueProperties;
+
+    /**
+     * 缓存提前刷新使用的线程池
+     */
+    @Autowired(required = false)
+    @Qualifier(Constants.ASYNC_POOL)
+    private Executor asyncExecutor;
+
     /**
-     * 重写spring的缓存管理
+     * 重写spring的缓存管理, 本地一级缓存 + redis 二级缓存, 一级缓存通过 redis 频道在节点间失效
      * @return
      */
+    @Bean
     @Override
     public CacheManager cacheManager() {
+        Map<String, RedisCacheConfiguration> initialCacheConfigurations = new LinkedHashMap<>();
+        for (String name : cacheManagerProperties.getCaches().keySet()) {
+            initialCacheConfigurations.put(name, cacheConfiguration(cacheManagerProperties.resolve(name)));
+        }
+        RedisCacheWriter cacheWriter = new TtlRedisCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(lettuceConnectionFactory), cacheManagerProperties);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(cacheWriter, lettuceConnectionFactory,
+                cacheConfiguration(cacheManagerProperties.resolve(null)), initialCacheConfigurations, cacheManagerProperties);
+        cacheManager.setTransactionAware(true);
+        cacheManager.setRefreshExecutor(asyncExecutor);
+        redisMessageListenerContainer().addMessageListener(cacheManager,
+                new ChannelTopic(cacheManagerProperties.getInvalidationChannel()));
+        return cacheManager;
+    }
+
+    /**
+     * 单个缓存的 redis 配置
+     * @param spec 合并后的缓存配置
+     * @return
+     */
+    private RedisCacheConfiguration cacheConfiguration(CacheManagerProperties.Spec spec) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 //key序列化方式
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(keySerializer()))
                 //value序列化方式
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer()))
-                //不缓存空值
-                .disableCachingNullValues()
-                //缓存过期时间 24小时过期
-                .entryTtl(Duration.ofHours(24));
-        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.RedisCacheManagerBuilder
-                .fromConnectionFactory(lettuceConnectionFactory)
-                .cacheDefaults(config)
-                .transactionAware();
-        return builder.build();
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer(spec.getSerializer())))
+                //缓存过期时间, 写入时再加上随机抖动
+                .entryTtl(spec.getTtl() == null ? Duration.ZERO : spec.getTtl());
+        if (!spec.getCacheNullValues()) {
+            config = config.disableCachingNullValues();
+        }
+        if (StringUtils.hasText(spec.getKeyPrefix())) {
+            // 前缀替换 缓存名称::, prefixCacheNameWith 只是在缓存名称前再加前缀, 会得到 dict:dict::key
+            String keyPrefix = spec.getKeyPrefix();
+            config = config.computePrefixWith(cacheName -> keyPrefix);
+        }
+        return config;
+    }
+
+    /**
+     * redis 订阅容器, 消息处理都很轻量, 直接在订阅线程上执行
+     * @return
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(lettuceConnectionFactory);
+        container.setTaskExecutor(new SyncTaskExecutor());
+        return container;
     }
 
     /**
@@ -64,42 +141,68 @@ public class LettuceRedisConfigure extends CachingConfigurerSupport {
      */
     @Override
     public KeyGenerator keyGenerator() {
-        return (o, method, objects) -> {
-            StringBuilder sb = new StringBuilder();
-            sb.append(o.getClass().getName()).append(".");
-            sb.append(method.getName()).append(".");
-            for (Object obj : objects) {
-                sb.append(obj.toString());
-            }
-            log.info("keyGenerator=" + sb.toString());
-            return sb.toString();
-        };
+        return new StructuredKeyGenerator(cacheManagerProperties.getMaxKeyLength(),
+                cacheManagerProperties.isStrictKeys());
     }
 
 
     /**
      * 自定义了一个泛型为<String, Object>的RedisTemplate，指定key序列化策略采用StringRedisSerializer，value序列化策略采用Jackson2JsonRedisSerializer，其内部采用ObjectMapper来序列化对象
      * @ConditionalOnClass 表示只有当项目里存在RedisOperations类的时候（即引入了spring-boot-starter-data-redis依赖的时候），我们自定义的RedisTemplateBean才会被注册到IOC容器中
+     * @param commandMetrics 命令耗时统计, 关闭时使用原始 RedisTemplate
      * @return
      */
     @Bean
     @ConditionalOnClass(RedisOperations.class)
-    public RedisTemplate<String, Object> redisTemplate() {
-        RedisTemplate<String, Object> template = new RedisTemplate<>();
+    public RedisTemplate<String, Object> redisTemplate(ObjectProvider<RedisCommandMetrics> commandMetrics) {
+        RedisCommandMetrics metrics = commandMetrics.getIfAvailable();
+        RedisTemplate<String, Object> template = metrics == null ? new RedisTemplate<>() : new InstrumentedRedisTemplate<>(metrics);
         template.setConnectionFactory(lettuceConnectionFactory);
         // key采用 String的序列化方式
         template.setKeySerializer(keySerializer());
         // hash的 key也采用 String的序列化方式
         template.setHashKeySerializer(keySerializer());
-        // value序列化方式采用 jackson
-        template.setValueSerializer(valueSerializer());
-        // hash的 value序列化方式采用 jackson
-        template.setHashValueSerializer(valueSerializer());
+        // value序列化方式, 默认 jackson
+        RedisSerializer<Object> valueSerializer = valueSerializer(redisValueProperties.getSerializer());
+        template.setValueSerializer(valueSerializer);
+        // hash的 value序列化方式与 value 一致
+        template.setHashValueSerializer(valueSerializer);
         template.afterPropertiesSet();
 
         return template;
     }
 
+    /**
+     * 同步操作工具类
+     * @return
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisHelper redisHelper() {
+        return new RedisHelper();
+    }
+
+    /**
+     * 非阻塞操作工具类, 与 redisTemplate 使用相同的序列化方式
+     * @param redisTemplate
+     * @param masterReplicaConfiguration 静态主从节点, 见 {@link RedisReplicaConfigure}
+     * @param replicaReads               普通读命令的从节点路由
+     * @return
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @SuppressWarnings("unchecked")
+    public AsyncRedisHelper asyncRedisHelper(RedisTemplate<String, Object> redisTemplate,
+                                             ObjectProvider<RedisStaticMasterReplicaConfiguration> masterReplicaConfiguration,
+                                             ObjectProvider<RedisReplicaReads> replicaReads) {
+        AsyncRedisHelper asyncRedisHelper = new AsyncRedisHelper(lettuceConnectionFactory,
+                (RedisSerializer<String>) redisTemplate.getKeySerializer(),
+                (RedisSerializer<Object>) redisTemplate.getValueSerializer());
+        masterReplicaConfiguration.ifAvailable(asyncRedisHelper::setMasterReplicaConfiguration);
+        replicaReads.ifAvailable(reads -> asyncRedisHelper.setReadFrom(reads.getReadFrom()));
+        return asyncRedisHelper;
+    }
+
     /**
      *
      * @return
@@ -108,6 +211,38 @@ public class LettuceRedisConfigure extends CachingConfigurerSupport {
         return new StringRedisSerializer();
     }
 
+    /**
+     * 按类型创建值序列化
+     * @param type
+     * @return
+     */
+    private RedisSerializer<Object> valueSerializer(SerializerType type) {
+        if (type == null) {
+            type = redisValueProperties.getSerializer();
+        }
+        switch (type) {
+            case JDK:
+                return RedisSerializer.java();
+            case SMILE:
+                return new BinaryRedisSerializer(new SmileFactory(), typeAliasRegistry(),
+                        redisValueProperties.getCompressionThreshold(), valueSerializer());
+            case CBOR:
+                return new BinaryRedisSerializer(new CBORFactory(), typeAliasRegistry(),
+                        redisValueProperties.getCompressionThreshold(), valueSerializer());
+            default:
+                return valueSerializer();
+        }
+    }
+
+    /**
+     * smile/cbor 共用的类型别名表, 也可以注入后在代码中注册
+     * @return
+     */
+    @Bean
+    public TypeAliasRegistry typeAliasRegistry() {
+        return TypeAliasRegistry.of(redisValueProperties.getTypeAliases(), getClass().getClassLoader());
+    }
+
     /**
      * 值序列化
      * @return
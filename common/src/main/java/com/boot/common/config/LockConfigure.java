@@ -0,0 +1,49 @@
+package com.boot.common.config;
+
+import com.boot.common.lock.LockMetrics;
+import com.boot.common.lock.RedisLockManager;
+import com.boot.common.properties.LockProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 分布式锁配置
+ * @author Yarns
+ */
+@Configuration
+@EnableConfigurationProperties(LockProperties.class)
+public class LockConfigure {
+
+    /**
+     * 锁的获取耗时、持有时长与租期过期指标, RedisHelper 与 RedisLockManager 共用
+     * @param meterRegistry
+     * @param properties
+     * @return
+     */
+    @Bean
+    public LockMetrics lockMetrics(MeterRegistry meterRegistry, LockProperties properties) {
+        return new LockMetrics(meterRegistry, properties.getMetricsMaxNames());
+    }
+
+    /**
+     * 分布式锁, 订阅释放通知以唤醒等待的线程
+     * @param redisTemplate
+     * @param redisMessageListenerContainer
+     * @param properties
+     * @return
+     */
+    @Bean
+    public RedisLockManager redisLockManager(RedisTemplate<String, Object> redisTemplate,
+                                             RedisMessageListenerContainer redisMessageListenerContainer,
+                                             LockProperties properties, LockMetrics lockMetrics) {
+        RedisLockManager lockManager = new RedisLockManager(redisTemplate, properties);
+        lockManager.setMetrics(lockMetrics);
+        redisMessageListenerContainer.addMessageListener(lockManager, new ChannelTopic(properties.getChannel()));
+        return lockManager;
+    }
+}
@@ -1,15 +1,27 @@
 package com.boot.common.config;
 
 import com.boot.common.constant.Constants;
+import com.boot.common.executor.ExecutorMetrics;
+import com.boot.common.executor.ExecutorMode;
+import com.boot.common.executor.RejectPolicy;
+import com.boot.common.executor.VirtualThreadTaskExecutor;
+import com.boot.common.executor.VirtualThreads;
+import com.boot.common.properties.ExecutorProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
@@ -20,6 +32,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 @Slf4j
 @EnableWebMvc
 @Configuration
+@EnableConfigurationProperties(ExecutorProperties.class)
 public class MvcConfigure {
 
     /**
@@ -40,21 +53,60 @@ public class MvcConfigure {
     }
 
     /**
-     * 注册异步线程池
+     * 注册异步线程池, 按 framework.executor.mode 使用平台线程池或虚拟线程; 任务的等待与执行时间等指标见 {@link ExecutorMetrics}
+     * @param properties
+     * @param meterRegistry
      * @return
      */
     @Bean(Constants.ASYNC_POOL)
-    public ThreadPoolTaskExecutor asyncThreadPoolTaskExecutor() {
+    public AsyncListenableTaskExecutor asyncThreadPoolTaskExecutor(ExecutorProperties properties,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        ExecutorMetrics metrics = registry == null ? ExecutorMetrics.noop() : new ExecutorMetrics(registry, Constants.ASYNC_POOL);
+        if (properties.getMode() == ExecutorMode.VIRTUAL) {
+            ExecutorService executorService = VirtualThreads.newThreadPerTaskExecutor(properties.getThreadNamePrefix());
+            if (executorService != null) {
+                log.info("异步线程池使用虚拟线程, 最大并发数: {}", properties.getMaxConcurrency());
+                VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(executorService, properties.getMaxConcurrency(),
+                        properties.getRejectPolicy(), properties.getAwaitTermination().toMillis());
+                executor.setTaskDecorator(metrics.taskDecorator());
+                executor.setMetrics(metrics);
+                metrics.bind(executor, properties.getMaxConcurrency());
+                return executor;
+            }
+            log.warn("当前JDK不支持虚拟线程, 异步线程池退回平台线程");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(20);
-        executor.setQueueCapacity(100);
-        executor.setKeepAliveSeconds(30);
-        executor.setThreadNamePrefix("Async-Thread");
+        executor.setCorePoolSize(properties.getCorePoolSize());
+        executor.setMaxPoolSize(Math.max(properties.getCorePoolSize(), properties.getMaxPoolSize()));
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setKeepAliveSeconds((int) properties.getKeepAlive().getSeconds());
+        executor.setThreadNamePrefix(properties.getThreadNamePrefix());
         executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(60);
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        executor.initialize();
+        executor.setAwaitTerminationMillis(properties.getAwaitTermination().toMillis());
+        executor.setRejectedExecutionHandler(metrics.instrument(rejectedExecutionHandler(properties.getRejectPolicy()),
+                properties.getRejectPolicy()));
+        executor.setTaskDecorator(metrics.taskDecorator());
+        // 由容器调用 afterPropertiesSet 初始化, 指标按 executor 读取当前线程池
+        metrics.bind(executor);
         return executor;
     }
+
+    /**
+     * 默认抛出异常由提交方处理, 不在请求线程上执行任务
+     * @param policy
+     * @return
+     */
+    private RejectedExecutionHandler rejectedExecutionHandler(RejectPolicy policy) {
+        switch (policy) {
+            case CALLER_RUNS:
+                return new ThreadPoolExecutor.CallerRunsPolicy();
+            case DISCARD_OLDEST:
+                return new ThreadPoolExecutor.DiscardOldestPolicy();
+            case DISCARD:
+                return (runnable, executor) -> log.warn("异步线程池已满, 丢弃任务 {}, 队列长度: {}", runnable, executor.getQueue().size());
+            default:
+                return new ThreadPoolExecutor.AbortPolicy();
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.boot.common.config;
+
+import com.boot.common.properties.RateLimitProperties;
+import com.boot.common.ratelimit.RedisRateLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 限流配置
+ * @author Yarns
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfigure {
+
+    /**
+     * 关闭后 @RateLimit 不生效
+     * @param redisTemplate
+     * @param properties
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "framework.rate-limit", name = "enabled", matchIfMissing = true)
+    public RedisRateLimiter redisRateLimiter(RedisTemplate<String, Object> redisTemplate, RateLimitProperties properties) {
+        return new RedisRateLimiter(redisTemplate, properties);
+    }
+}
@@ -0,0 +1,116 @@
+package com.boot.common.config;
+
+import com.boot.common.properties.HotKeyProperties;
+import com.boot.common.properties.RedisClientProperties;
+import com.boot.common.properties.RedisMetricsProperties;
+import com.boot.common.redis.HotKeyDetector;
+import com.boot.common.redis.HotKeysEndpoint;
+import com.boot.common.redis.LettuceConnectionMetrics;
+import com.boot.common.redis.RedisCommandMetrics;
+import com.boot.common.redis.RedisCommandsEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.lettuce.core.resource.ClientResources;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * lettuce 客户端资源与指标配置
+ * <p>
+ * 普通命令共用一条多路复用连接(LettuceConnectionFactory 默认 shareNativeConnection), spring.redis.lettuce.pool 只用于阻塞命令与事务
+ * @author Yarns
+ */
+@Configuration
+@EnableConfigurationProperties({RedisClientProperties.class, RedisMetricsProperties.class, HotKeyProperties.class})
+public class RedisClientConfigure {
+
+    /**
+     * 显式指定 I/O 与计算线程数, 所有连接共用
+     * @param properties
+     * @return
+     */
+    @Bean
+    public ClientResourcesBuilderCustomizer clientResourcesThreadsCustomizer(RedisClientProperties properties) {
+        return builder -> {
+            if (properties.getIoThreadPoolSize() > 0) {
+                builder.ioThreadPoolSize(properties.getIoThreadPoolSize());
+            }
+            if (properties.getComputationThreadPoolSize() > 0) {
+                builder.computationThreadPoolSize(properties.getComputationThreadPoolSize());
+            }
+        };
+    }
+
+    /**
+     * 替换 spring boot 默认的命令耗时选项: 输出直方图, 不按本地地址区分
+     * @param properties
+     * @return
+     */
+    @Bean
+    public MicrometerOptions micrometerOptions(RedisClientProperties properties) {
+        return MicrometerOptions.builder()
+                .histogram(properties.isLatencyHistogram())
+                .localDistinction(false)
+                .build();
+    }
+
+    /**
+     * 连接数与重连指标
+     * @param clientResources
+     * @return
+     */
+    @Bean
+    public LettuceConnectionMetrics lettuceConnectionMetrics(ClientResources clientResources) {
+        return new LettuceConnectionMetrics(clientResources);
+    }
+
+    /**
+     * redisTemplate 按命令与 key 前缀的耗时统计
+     * @param meterRegistry
+     * @param properties
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "framework.redis.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisCommandMetrics redisCommandMetrics(MeterRegistry meterRegistry, RedisMetricsProperties properties) {
+        return new RedisCommandMetrics(meterRegistry, properties.getPrefixDepth(), properties.getMaxPrefixes(),
+                properties.getSlowCommandThreshold(), properties.isHistogram());
+    }
+
+    /**
+     * 耗时最多的 key 前缀
+     * @param redisCommandMetrics
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "framework.redis.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisCommandsEndpoint redisCommandsEndpoint(RedisCommandMetrics redisCommandMetrics) {
+        return new RedisCommandsEndpoint(redisCommandMetrics);
+    }
+
+    /**
+     * RedisHelper.get/hget 热点 key 探测与本地缓存
+     * @param properties
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "framework.redis.hot-key", name = "enabled", havingValue = "true")
+    public HotKeyDetector hotKeyDetector(HotKeyProperties properties) {
+        return new HotKeyDetector(properties.getSampleRate(), properties.getThreshold(), properties.getWindow(),
+                properties.getLocalTtl(), properties.getMaxHotKeys(), properties.getSketchDepth(), properties.getSketchWidth());
+    }
+
+    /**
+     * 当前热点 key
+     * @param hotKeyDetector
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "framework.redis.hot-key", name = "enabled", havingValue = "true")
+    public HotKeysEndpoint hotKeysEndpoint(HotKeyDetector hotKeyDetector) {
+        return new HotKeysEndpoint(hotKeyDetector);
+    }
+}
@@ -0,0 +1,144 @@
+package com.boot.common.config;
+
+import com.boot.common.properties.RedisReplicaProperties;
+import com.boot.common.redis.RedisCommandMetrics;
+import com.boot.common.redis.RedisReplicaReads;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.resource.ClientResources;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * redis 读写分离配置
+ * <p>
+ * 主连接工厂不设置 ReadFrom, 锁、缓存等始终读写主节点; 只读命令通过 {@link RedisReplicaReads} 的独立连接路由到从节点.
+ * 配置了 framework.redis.replica.nodes 时以静态主从方式创建连接工厂
+ * @author Yarns
+ */
+@Configuration
+@EnableConfigurationProperties(RedisReplicaProperties.class)
+public class RedisReplicaConfigure {
+
+    /**
+     * RedisHelper / AsyncRedisHelper 的普通读命令路由到从节点
+     * @param connectionFactory
+     * @param masterReplicaConfiguration
+     * @param redisTemplate
+     * @param commandMetrics
+     * @param properties
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "framework.redis.replica", name = "read-from")
+    public RedisReplicaReads redisReplicaReads(LettuceConnectionFactory connectionFactory,
+                                               ObjectProvider<RedisStaticMasterReplicaConfiguration> masterReplicaConfiguration,
+                                               RedisTemplate<String, Object> redisTemplate,
+                                               ObjectProvider<RedisCommandMetrics> commandMetrics,
+                                               RedisReplicaProperties properties) {
+        return new RedisReplicaReads(connectionFactory, masterReplicaConfiguration.getIfAvailable(),
+                readFrom(properties.getReadFrom()), redisTemplate, commandMetrics.getIfAvailable());
+    }
+
+    /**
+     * 静态主从节点
+     * @param redisProperties
+     * @param properties
+     * @return
+     */
+    @Bean
+    @Conditional(OnReplicaNodesCondition.class)
+    public RedisStaticMasterReplicaConfiguration redisMasterReplicaConfiguration(RedisProperties redisProperties,
+                                                                                 RedisReplicaProperties properties) {
+        RedisStaticMasterReplicaConfiguration configuration =
+                new RedisStaticMasterReplicaConfiguration(redisProperties.getHost(), redisProperties.getPort());
+        for (String node : properties.getNodes()) {
+            int index = node.lastIndexOf(':');
+            if (index <= 0) {
+                throw new IllegalArgumentException("从节点格式应为 host:port: " + node);
+            }
+            configuration.node(node.substring(0, index).trim(), Integer.parseInt(node.substring(index + 1).trim()));
+        }
+        configuration.setUsername(redisProperties.getUsername());
+        configuration.setPassword(redisProperties.getPassword());
+        configuration.setDatabase(redisProperties.getDatabase());
+        return configuration;
+    }
+
+    /**
+     * 静态主从连接工厂, 替代 spring boot 默认的单机连接工厂
+     * @param configuration
+     * @param redisProperties
+     * @param customizers
+     * @param clientResources
+     * @return
+     */
+    @Bean
+    @Conditional(OnReplicaNodesCondition.class)
+    public LettuceConnectionFactory redisConnectionFactory(RedisStaticMasterReplicaConfiguration configuration,
+                                                           RedisProperties redisProperties,
+                                                           ObjectProvider<LettuceClientConfigurationBuilderCustomizer> customizers,
+                                                           ClientResources clientResources) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder()
+                .clientResources(clientResources);
+        if (redisProperties.isSsl()) {
+            builder.useSsl();
+        }
+        if (redisProperties.getTimeout() != null) {
+            builder.commandTimeout(redisProperties.getTimeout());
+        }
+        ClientOptions.Builder clientOptions = ClientOptions.builder().timeoutOptions(TimeoutOptions.enabled());
+        if (redisProperties.getConnectTimeout() != null) {
+            clientOptions.socketOptions(SocketOptions.builder().connectTimeout(redisProperties.getConnectTimeout()).build());
+        }
+        builder.clientOptions(clientOptions.build());
+        if (StringUtils.hasText(redisProperties.getClientName())) {
+            builder.clientName(redisProperties.getClientName());
+        }
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return new LettuceConnectionFactory(configuration, builder.build());
+    }
+
+    /**
+     * 兼容 REPLICA_PREFERRED 与 replicaPreferred 两种写法
+     * @param name
+     * @return
+     */
+    private static ReadFrom readFrom(String name) {
+        return ReadFrom.valueOf(name.replace("_", "").replace("-", ""));
+    }
+
+    /**
+     * 配置了从节点; nodes 写成 yaml 列表时只有 nodes[0]、nodes[1] 属性, @ConditionalOnProperty 匹配不到, 需要绑定后判断
+     */
+    static class OnReplicaNodesCondition extends SpringBootCondition {
+
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            boolean configured = Binder.get(context.getEnvironment())
+                    .bind("framework.redis.replica", RedisReplicaProperties.class)
+                    .map(properties -> !properties.getNodes().isEmpty())
+                    .orElse(false);
+            return configured ? ConditionOutcome.match("framework.redis.replica.nodes 已配置")
+                    : ConditionOutcome.noMatch("framework.redis.replica.nodes 未配置");
+        }
+    }
+}
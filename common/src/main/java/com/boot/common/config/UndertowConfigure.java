@@ -0,0 +1,27 @@
+package com.boot.common.config;
+
+import com.boot.common.properties.UndertowProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * undertow 配置
+ * @author Yarns
+ */
+@Configuration
+@ConditionalOnClass(name = "io.undertow.Undertow")
+@EnableConfigurationProperties(UndertowProperties.class)
+public class UndertowConfigure {
+
+    /**
+     * 请求在虚拟线程或 worker 线程池上处理
+     * @param properties
+     * @return
+     */
+    @Bean
+    public UndertowDispatchCustomizer undertowDispatchCustomizer(UndertowProperties properties) {
+        return new UndertowDispatchCustomizer(properties);
+    }
+}
@@ -0,0 +1,49 @@
+package com.boot.common.config;
+
+import com.boot.common.executor.VirtualThreads;
+import com.boot.common.properties.UndertowProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * undertow servlet 请求的执行线程: 开启虚拟线程时每个请求一个虚拟线程, 否则使用 worker 线程池, 大小由 server.undertow.threads.worker 配置
+ * <p>
+ * 虚拟线程在 synchronized 块内阻塞时会占住载体线程(JDK 21), 驱动与连接池内部的同步块会降低收益, 开启前需要压测
+ * @author Yarns
+ */
+@Slf4j
+public class UndertowDispatchCustomizer implements WebServerFactoryCustomizer<UndertowServletWebServerFactory>, DisposableBean {
+
+    private final UndertowProperties properties;
+
+    private ExecutorService executorService;
+
+    public UndertowDispatchCustomizer(UndertowProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void customize(UndertowServletWebServerFactory factory) {
+        if (properties.isVirtualThreads()) {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("Undertow-Virtual-");
+            if (executor != null) {
+                executorService = executor;
+                factory.addDeploymentInfoCustomizers(deploymentInfo -> deploymentInfo.setExecutor(executor));
+                log.info("Undertow 请求在虚拟线程上处理");
+                return;
+            }
+            log.warn("当前JDK不支持虚拟线程, Undertow 使用 worker 线程池");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+    }
+}
@@ -131,6 +131,8 @@ public class FrameworkApplication extends SpringApplication {
             props.setProperty("spring.lifecycle.timeout-per-shutdown-phase", "20s");
             //开启健康检测
             props.setProperty("management.endpoint.health.probes.enabled", "true");
+            //框架指标 /actuator/metrics
+            props.setProperty("management.endpoints.web.exposure.include", "health,info,metrics");
             //Nacos配置中心
 //            props.setProperty("nacos.config.auto-refresh", "true");
 //            props.setProperty("nacos.config.group", "DEFAULT_GROUP");
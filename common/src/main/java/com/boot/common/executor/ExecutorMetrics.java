@@ -0,0 +1,178 @@
+package com.boot.common.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池指标, 通过 /actuator/metrics 查看, name 标签为线程池名称
+ * <ul>
+ *     <li>executor.task.wait: 提交到开始执行的等待时间</li>
+ *     <li>executor.task.run: 执行时间</li>
+ *     <li>executor.rejected: 线程池满的次数, policy 标签为处理策略</li>
+ *     <li>executor.caller.runs: 在提交线程上执行的次数</li>
+ *     <li>executor.pool.size / executor.active / executor.queued: 线程数、执行中的任务数、排队的任务数</li>
+ * </ul>
+ * {@link #taskDecorator()} 同时把提交线程的 MDC 带到执行线程, 异步日志可以与请求关联
+ * @author Yarns
+ */
+public class ExecutorMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+
+    private final String name;
+
+    private final Timer wait;
+
+    private final Timer run;
+
+    private final Counter callerRuns;
+
+    public ExecutorMetrics(MeterRegistry registry, String name) {
+        this.registry = registry;
+        this.name = name;
+        this.wait = timer("executor.task.wait", "任务提交到开始执行的等待时间");
+        this.run = timer("executor.task.run", "任务执行时间");
+        this.callerRuns = Counter.builder("executor.caller.runs")
+                .description("线程池满后在提交线程上执行的次数")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * @return 不输出任何指标
+     */
+    public static ExecutorMetrics noop() {
+        return new ExecutorMetrics(new CompositeMeterRegistry(), "noop");
+    }
+
+    /**
+     * 记录等待与执行时间, 并传递 MDC
+     *
+     * @return TaskDecorator
+     */
+    public TaskDecorator taskDecorator() {
+        return runnable -> {
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            long submitted = System.nanoTime();
+            return () -> {
+                long start = System.nanoTime();
+                wait.record(start - submitted, TimeUnit.NANOSECONDS);
+                Map<String, String> previous = MDC.getCopyOfContextMap();
+                setContext(context);
+                try {
+                    runnable.run();
+                } finally {
+                    run.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    setContext(previous);
+                }
+            };
+        };
+    }
+
+    /**
+     * 包装拒绝策略, 记录次数
+     *
+     * @param handler 拒绝策略
+     * @param policy  策略类型
+     * @return 包装后的拒绝策略
+     */
+    public RejectedExecutionHandler instrument(RejectedExecutionHandler handler, RejectPolicy policy) {
+        return (runnable, executor) -> {
+            rejected(policy);
+            handler.rejectedExecution(runnable, executor);
+        };
+    }
+
+    /**
+     * @param policy 处理策略
+     */
+    public void rejected(RejectPolicy policy) {
+        Counter.builder("executor.rejected")
+                .description("线程池满的次数")
+                .tag("name", name)
+                .tag("policy", policy.name().toLowerCase())
+                .register(registry)
+                .increment();
+        if (policy == RejectPolicy.CALLER_RUNS) {
+            callerRuns.increment();
+        }
+    }
+
+    /**
+     * 平台线程池的线程数与队列长度; 每次读取时取当前的线程池, 不受 initialize() 重建线程池影响
+     *
+     * @param executor 线程池
+     */
+    public void bind(ThreadPoolTaskExecutor executor) {
+        Gauge.builder("executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .description("当前线程数")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("执行中的任务数")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("executor.queued", executor, ExecutorMetrics::queued)
+                .description("排队的任务数")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * 虚拟线程池执行中的任务数, 仅在限制了并发数时可统计
+     *
+     * @param executor   线程池
+     * @param maxPermits 最大并发数
+     */
+    public void bind(VirtualThreadTaskExecutor executor, int maxPermits) {
+        if (maxPermits > 0) {
+            Gauge.builder("executor.active", executor, e -> maxPermits - e.getAvailablePermits())
+                    .description("执行中的任务数")
+                    .tag("name", name)
+                    .register(registry);
+        }
+    }
+
+    private Timer timer(String metric, String description) {
+        return Timer.builder(metric)
+                .description(description)
+                .tag("name", name)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(registry);
+    }
+
+    /**
+     * @return 排队的任务数, 未初始化时为 0
+     */
+    private static int queued(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            return 0;
+        }
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.boot.common.executor;
+
+/**
+ * 异步线程池的执行方式
+ * @author Yarns
+ */
+public enum ExecutorMode {
+
+    /**
+     * 有界的平台线程池
+     */
+    PLATFORM,
+
+    /**
+     * 每个任务一个虚拟线程, 需要 JDK 21 及以上, 不支持时退回 PLATFORM
+     */
+    VIRTUAL
+}
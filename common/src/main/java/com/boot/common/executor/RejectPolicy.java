@@ -0,0 +1,28 @@
+package com.boot.common.executor;
+
+/**
+ * 线程池满时的处理策略
+ * @author Yarns
+ */
+public enum RejectPolicy {
+
+    /**
+     * 抛出 TaskRejectedException, 由提交方感知背压
+     */
+    ABORT,
+
+    /**
+     * 丢弃新任务并输出 warn 日志
+     */
+    DISCARD,
+
+    /**
+     * 丢弃队列中最早的任务
+     */
+    DISCARD_OLDEST,
+
+    /**
+     * 在提交线程上执行; 提交线程为请求线程时会拖慢请求, 不建议使用
+     */
+    CALLER_RUNS
+}
@@ -0,0 +1,110 @@
+package com.boot.common.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个任务一个虚拟线程, 可以限制同时执行的任务数; 超过限制时按 {@link RejectPolicy} 处理, 不排队
+ * @author Yarns
+ */
+@Slf4j
+public class VirtualThreadTaskExecutor extends TaskExecutorAdapter implements DisposableBean {
+
+    private final ExecutorService executorService;
+
+    private final Semaphore permits;
+
+    private final RejectPolicy rejectPolicy;
+
+    private final long awaitTerminationMillis;
+
+    private ExecutorMetrics metrics = ExecutorMetrics.noop();
+
+    /**
+     * @param executorService        虚拟线程池
+     * @param maxConcurrency         同时执行的最大任务数, 0 不限制
+     * @param rejectPolicy           超过限制时的处理, DISCARD_OLDEST 按 DISCARD 处理
+     * @param awaitTerminationMillis 停机时等待任务完成的时间
+     */
+    public VirtualThreadTaskExecutor(ExecutorService executorService, int maxConcurrency, RejectPolicy rejectPolicy,
+                                     long awaitTerminationMillis) {
+        // 不直接传 ExecutorService: 否则没有 TaskDecorator 时 submit 直接提交给线程池, 绕过 doExecute 中的并发限制
+        super(executorService::execute);
+        this.executorService = executorService;
+        this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+        this.rejectPolicy = rejectPolicy;
+        this.awaitTerminationMillis = awaitTerminationMillis;
+    }
+
+    @Override
+    protected void doExecute(Executor concurrentExecutor, TaskDecorator taskDecorator, Runnable runnable) {
+        if (permits == null) {
+            super.doExecute(concurrentExecutor, taskDecorator, runnable);
+            return;
+        }
+        if (!permits.tryAcquire()) {
+            reject(runnable);
+            return;
+        }
+        try {
+            super.doExecute(concurrentExecutor, taskDecorator, () -> {
+                try {
+                    runnable.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void setMetrics(ExecutorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return 同时执行任务数的剩余名额, 不限制时为 -1
+     */
+    public int getAvailablePermits() {
+        return permits == null ? -1 : permits.availablePermits();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executorService.shutdown();
+        if (!executorService.awaitTermination(awaitTerminationMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("虚拟线程池停机超时, 剩余任务被中断");
+            executorService.shutdownNow();
+        }
+    }
+
+    private void reject(Runnable runnable) {
+        metrics.rejected(rejectPolicy);
+        switch (rejectPolicy) {
+            case CALLER_RUNS:
+                runnable.run();
+                break;
+            case DISCARD:
+            case DISCARD_OLDEST:
+                log.warn("虚拟线程池已达并发上限, 丢弃任务 {}", runnable);
+                // submit 提交的任务, 取消后调用方不会一直等待
+                if (runnable instanceof Future) {
+                    ((Future<?>) runnable).cancel(false);
+                }
+                break;
+            default:
+                throw new TaskRejectedException("虚拟线程池已达并发上限: " + runnable);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.boot.common.executor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 通过反射使用虚拟线程, 源码仍按 JDK 17 编译
+ * @author Yarns
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    private static final boolean SUPPORTED = threadFactory("probe-") != null;
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return 当前 JDK 是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * 虚拟线程工厂, 线程名为 prefix + 序号
+     *
+     * @param prefix 线程名前缀
+     * @return 不支持时为 null
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 每个任务一个虚拟线程的 ExecutorService
+     *
+     * @param prefix 线程名前缀
+     * @return 不支持时为 null
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory threadFactory = threadFactory(prefix);
+        if (threadFactory == null) {
+            return null;
+        }
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            log.warn("创建虚拟线程池失败", e);
+            return null;
+        }
+    }
+}
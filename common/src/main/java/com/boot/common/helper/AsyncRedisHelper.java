@@ -0,0 +1,333 @@
+package com.boot.common.helper;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.masterreplica.MasterReplica;
+import io.lettuce.core.masterreplica.StatefulRedisMasterReplicaConnection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 非阻塞版本的 {@link RedisHelper}, 基于 lettuce 异步 api, 所有方法立即返回 CompletableFuture
+ * <p>
+ * 与 RedisHelper 使用相同的 key 前缀与序列化方式, 数据互通; 多个读取可以并发发出再统一等待:
+ * <pre>
+ *   CompletableFuture&lt;Object&gt; a = asyncRedisHelper.get("a");
+ *   CompletableFuture&lt;Object&gt; b = asyncRedisHelper.get("b");
+ *   CompletableFuture.allOf(a, b).join();
+ * </pre>
+ * 所有命令复用同一条多路复用连接, 首次使用时建立; 集群与静态主从模式下, 设置了 ReadFrom 时普通读命令按策略读从节点, 锁的连接始终读写主节点
+ * @author Yarns
+ */
+@Slf4j
+public class AsyncRedisHelper implements DisposableBean {
+
+    private final LettuceConnectionFactory connectionFactory;
+
+    private final RedisCodec<String, Object> codec;
+
+    /**
+     * 锁的值与 RedisHelper 一致, 使用 key 的序列化方式
+     */
+    private final RedisCodec<String, String> lockCodec;
+
+    private volatile RedisClusterAsyncCommands<String, Object> commands;
+
+    private volatile RedisClusterAsyncCommands<String, String> lockCommands;
+
+    private final List<StatefulConnection<String, ?>> connections = new ArrayList<>(2);
+
+    /**
+     * 静态主从节点, 为空时直接连接 native client 的默认节点
+     */
+    private List<RedisURI> masterReplicaNodes;
+
+    /**
+     * 普通命令的读路由, 为空时全部走主节点
+     */
+    private ReadFrom readFrom;
+
+    public AsyncRedisHelper(LettuceConnectionFactory connectionFactory, RedisSerializer<String> keySerializer,
+                            RedisSerializer<Object> valueSerializer) {
+        this.connectionFactory = connectionFactory;
+        this.codec = new SerializerRedisCodec<>(keySerializer, valueSerializer);
+        this.lockCodec = new SerializerRedisCodec<>(keySerializer, keySerializer);
+    }
+
+    /**
+     * 连接工厂使用 {@link RedisStaticMasterReplicaConfiguration} 时需要设置, 此时 native client 没有默认节点
+     *
+     * @param configuration 主从节点
+     */
+    public void setMasterReplicaConfiguration(RedisStaticMasterReplicaConfiguration configuration) {
+        LettuceClientConfiguration clientConfiguration = connectionFactory.getClientConfiguration();
+        List<RedisURI> nodes = new ArrayList<>(configuration.getNodes().size());
+        for (RedisStandaloneConfiguration node : configuration.getNodes()) {
+            RedisURI.Builder builder = RedisURI.builder()
+                    .withHost(node.getHostName())
+                    .withPort(node.getPort())
+                    .withDatabase(node.getDatabase())
+                    .withSsl(clientConfiguration.isUseSsl())
+                    .withTimeout(clientConfiguration.getCommandTimeout());
+            node.getPassword().toOptional().ifPresent(password -> {
+                if (node.getUsername() != null) {
+                    builder.withAuthentication(node.getUsername(), password);
+                } else {
+                    builder.withPassword(password);
+                }
+            });
+            nodes.add(builder.build());
+        }
+        this.masterReplicaNodes = nodes;
+    }
+
+    /**
+     * @param readFrom 普通读命令的路由策略, 不影响锁
+     */
+    public void setReadFrom(ReadFrom readFrom) {
+        this.readFrom = readFrom;
+    }
+
+    //-----------------------分布式redis锁的获取和释放-----------------------------
+
+    /**
+     * @param key    键
+     * @param value  锁的持有者标识
+     * @param expire 过期毫秒
+     * @return 是否获取成功
+     */
+    public CompletableFuture<Boolean> tryLock(String key, String value, Long expire) {
+        return toFuture(lockCommands().set(prefix(key), value, SetArgs.Builder.nx().px(expire)))
+                .thenApply("OK"::equals);
+    }
+
+    /**
+     * 只释放自己持有的锁
+     *
+     * @param key   键
+     * @param value 锁的持有者标识
+     * @return 是否释放成功
+     */
+    public CompletableFuture<Boolean> unLock(String key, String value) {
+        CompletionStage<Long> result = lockCommands().eval(RedisHelper.UNLOCK_LUA, ScriptOutputType.INTEGER,
+                new String[]{prefix(key)}, value);
+        return toFuture(result).thenApply(count -> count != null && count > 0);
+    }
+
+    //-----------------------通用-----------------------------
+
+    public CompletableFuture<Boolean> expire(String key, Long time) {
+        return toFuture(commands().expire(prefix(key), time));
+    }
+
+    public CompletableFuture<Long> getExpire(String key) {
+        return toFuture(commands().ttl(prefix(key)));
+    }
+
+    public CompletableFuture<Boolean> hasKey(String key) {
+        return toFuture(commands().exists(prefix(key))).thenApply(count -> count != null && count > 0);
+    }
+
+    public CompletableFuture<Long> del(String... key) {
+        String[] keys = new String[key.length];
+        for (int i = 0; i < key.length; i++) {
+            keys[i] = prefix(key[i]);
+        }
+        return toFuture(commands().del(keys));
+    }
+
+    //-----------------------String-----------------------------
+
+    public CompletableFuture<Object> get(String key) {
+        return toFuture(commands().get(prefix(key)));
+    }
+
+    /**
+     * @param keys 键
+     * @return 与 keys 顺序一致的值, 不存在的为 null
+     */
+    public CompletableFuture<List<Object>> mget(Collection<String> keys) {
+        String[] prefixed = keys.stream().map(this::prefix).toArray(String[]::new);
+        return toFuture(commands().mget(prefixed)).thenApply(values -> {
+            List<Object> result = new ArrayList<>(values.size());
+            for (KeyValue<String, Object> value : values) {
+                result.add(value.getValueOrElse(null));
+            }
+            return result;
+        });
+    }
+
+    public CompletableFuture<Boolean> set(String key, Object value) {
+        return toFuture(commands().set(prefix(key), value)).thenApply("OK"::equals);
+    }
+
+    /**
+     * @param time 时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     */
+    public CompletableFuture<Boolean> set(String key, Object value, Long time) {
+        if (time <= 0) {
+            return set(key, value);
+        }
+        return toFuture(commands().setex(prefix(key), time, value)).thenApply("OK"::equals);
+    }
+
+    public CompletableFuture<Long> incr(String key, Long delta) {
+        if (delta < 0) {
+            throw new RuntimeException("递增因子必须大于0");
+        }
+        return toFuture(commands().incrby(prefix(key), delta));
+    }
+
+    public CompletableFuture<Long> decr(String key, Long delta) {
+        if (delta < 0) {
+            throw new RuntimeException("递减因子必须大于0");
+        }
+        return toFuture(commands().decrby(prefix(key), delta));
+    }
+
+    //-----------------------Hash-----------------------------
+
+    public CompletableFuture<Object> hget(String key, String item) {
+        return toFuture(commands().hget(prefix(key), item));
+    }
+
+    public CompletableFuture<Map<String, Object>> hmget(String key) {
+        return toFuture(commands().hgetall(prefix(key)));
+    }
+
+    public CompletableFuture<Boolean> hmset(String key, Map<String, Object> map) {
+        return toFuture(commands().hmset(prefix(key), map)).thenApply("OK"::equals);
+    }
+
+    public CompletableFuture<Boolean> hset(String key, String item, Object value) {
+        return toFuture(commands().hset(prefix(key), item, value)).thenApply(created -> true);
+    }
+
+    public CompletableFuture<Long> hdel(String key, String... item) {
+        return toFuture(commands().hdel(prefix(key), item));
+    }
+
+    public CompletableFuture<Boolean> hHasKey(String key, String item) {
+        return toFuture(commands().hexists(prefix(key), item));
+    }
+
+    //-----------------------Set-----------------------------
+
+    public CompletableFuture<Set<Object>> sGet(String key) {
+        return toFuture(commands().smembers(prefix(key)));
+    }
+
+    public CompletableFuture<Boolean> sHasKey(String key, Object value) {
+        return toFuture(commands().sismember(prefix(key), value));
+    }
+
+    public CompletableFuture<Long> sSet(String key, Object... values) {
+        return toFuture(commands().sadd(prefix(key), values));
+    }
+
+    public CompletableFuture<Long> setRemove(String key, Object... values) {
+        return toFuture(commands().srem(prefix(key), values));
+    }
+
+    //-----------------------List-----------------------------
+
+    /**
+     * @param end 结束 0 到 -1代表所有值
+     */
+    public CompletableFuture<List<Object>> lGet(String key, Long start, Long end) {
+        return toFuture(commands().lrange(prefix(key), start, end));
+    }
+
+    public CompletableFuture<Long> lSet(String key, Object... values) {
+        return toFuture(commands().rpush(prefix(key), values));
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (connections) {
+            for (StatefulConnection<String, ?> connection : connections) {
+                connection.closeAsync();
+            }
+            connections.clear();
+        }
+    }
+
+    private String prefix(String key) {
+        return RedisHelper.getRedisPrefix() + key;
+    }
+
+    private static <T> CompletableFuture<T> toFuture(CompletionStage<T> stage) {
+        return stage.toCompletableFuture();
+    }
+
+    private RedisClusterAsyncCommands<String, Object> commands() {
+        RedisClusterAsyncCommands<String, Object> current = commands;
+        if (current == null) {
+            synchronized (connections) {
+                if (commands == null) {
+                    commands = connect(codec, readFrom);
+                }
+                current = commands;
+            }
+        }
+        return current;
+    }
+
+    private RedisClusterAsyncCommands<String, String> lockCommands() {
+        RedisClusterAsyncCommands<String, String> current = lockCommands;
+        if (current == null) {
+            synchronized (connections) {
+                if (lockCommands == null) {
+                    lockCommands = connect(lockCodec, null);
+                }
+                current = lockCommands;
+            }
+        }
+        return current;
+    }
+
+    private <V> RedisClusterAsyncCommands<String, V> connect(RedisCodec<String, V> codec, ReadFrom readFrom) {
+        AbstractRedisClient client = connectionFactory.getRequiredNativeClient();
+        if (client instanceof RedisClusterClient) {
+            io.lettuce.core.cluster.api.StatefulRedisClusterConnection<String, V> connection = ((RedisClusterClient) client).connect(codec);
+            if (readFrom != null) {
+                connection.setReadFrom(readFrom);
+            }
+            connections.add(connection);
+            return connection.async();
+        }
+        if (masterReplicaNodes != null) {
+            StatefulRedisMasterReplicaConnection<String, V> connection = MasterReplica.connect((RedisClient) client, codec, masterReplicaNodes);
+            if (readFrom != null) {
+                connection.setReadFrom(readFrom);
+            }
+            connections.add(connection);
+            return connection.async();
+        }
+        io.lettuce.core.api.StatefulRedisConnection<String, V> connection = ((RedisClient) client).connect(codec);
+        connections.add(connection);
+        return connection.async();
+    }
+}
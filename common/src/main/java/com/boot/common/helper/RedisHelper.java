@@ -1,19 +1,39 @@
 package com.boot.common.helper;
 
+import com.boot.common.lock.LockMetrics;
+import com.boot.common.redis.HotKeyDetector;
+import com.boot.common.redis.RedisReplicaReads;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import io.lettuce.core.ScriptOutputType;
-import io.lettuce.core.SetArgs;
-import io.lettuce.core.api.async.RedisAsyncCommands;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
-import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,10 +49,33 @@ public class RedisHelper {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * 批量操作每批的 key 数量, 超出后拆分为多次请求
+     */
+    @Value("${framework.redis.batch-size:500}")
+    private int batchSize = 500;
+
+    private LockMetrics lockMetrics = LockMetrics.noop();
+
+    private HotKeyDetector hotKeyDetector;
+
+    /**
+     * 普通读命令使用的 redisTemplate, 配置了 framework.redis.replica.read-from 时按策略读从节点; 锁始终走主节点
+     */
+    private RedisTemplate<String, Object> readTemplate;
+
+    /**
+     * 本节点获取锁的时间, 用于统计持有时长; 未释放的锁随过期清除
+     */
+    private final Cache<String, Long> lockStarts = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(1, TimeUnit.HOURS)
+            .build();
+
     /**
      * LUA脚本
      */
-    private static final String UNLOCK_LUA;
+    static final String UNLOCK_LUA;
 
     static {
         UNLOCK_LUA = "if redis.call(\"get\",KEYS[1]) == ARGV[1] " +
@@ -43,23 +86,59 @@ public class RedisHelper {
                 "end ";
     }
 
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(UNLOCK_LUA, Long.class);
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    /**
+     * 所有 key 的统一前缀
+     * @return 前缀
+     */
+    public static String getRedisPrefix() {
+        return redisPrefix;
+    }
+
+    @Autowired(required = false)
+    public void setLockMetrics(LockMetrics lockMetrics) {
+        this.lockMetrics = lockMetrics;
+    }
+
+    @Autowired(required = false)
+    public void setHotKeyDetector(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    @Autowired(required = false)
+    public void setReplicaReads(RedisReplicaReads replicaReads) {
+        this.readTemplate = replicaReads.getRedisTemplate();
+    }
+
+    private RedisTemplate<String, Object> reads() {
+        return readTemplate != null ? readTemplate : redisTemplate;
+    }
+
     //-----------------------分布式redis锁的获取和释放-----------------------------
 
 
     public boolean tryLock(String key, String value, Long expire) {
+        long start = System.nanoTime();
+        boolean acquired = acquireLock(key, value, expire);
+        lockMetrics.recordAcquire(key, System.nanoTime() - start, acquired);
+        if (acquired) {
+            lockStarts.put(key + '\n' + value, System.nanoTime());
+        }
+        return acquired;
+    }
+
+    private boolean acquireLock(String key, String value, Long expire) {
         try {
-            RedisCallback<String> callback = (connection) -> {
-                RedisAsyncCommands commands = (RedisAsyncCommands) connection.getNativeConnection();
-                SetArgs setArgs = SetArgs.Builder.nx();
-                setArgs.px(expire);
-                RedisSerializer<String> stringRedisSerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
-                //lettuce连接包下序列化键值，否知无法用默认的ByteArrayCodec解析
-                byte[] keyByte = stringRedisSerializer.serialize(redisPrefix+key);
-                byte[] valueByte = stringRedisSerializer.serialize(value);
-                return commands.getStatefulConnection().sync().set(keyByte, valueByte, setArgs);
-            };
-            String result = redisTemplate.execute(callback);
-            return !StringUtils.isEmpty(result);
+            // SET NX PX 走连接的通用命令接口, 单机、哨兵与集群(按 key 的 slot 路由)一致
+            RedisSerializer<String> stringRedisSerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+            byte[] keyByte = stringRedisSerializer.serialize(redisPrefix + key);
+            byte[] valueByte = stringRedisSerializer.serialize(value);
+            Boolean result = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                    .set(keyByte, valueByte, Expiration.milliseconds(expire), RedisStringCommands.SetOption.SET_IF_ABSENT));
+            return Boolean.TRUE.equals(result);
         } catch (Exception e) {
             log.error("set redis occured an exception", e);
         }
@@ -67,17 +146,25 @@ public class RedisHelper {
     }
 
     /**
+     * 轮询获取锁; 需要重入、自动续期或等待超时的场景使用 {@link com.boot.common.lock.RedisLockManager}
+     *
      * @param key
      * @param value
      * @param expire 过期毫秒
      */
     public void lock(String key, String value, Long expire) {
+        long start = System.nanoTime();
+        boolean acquired = false;
         try {
-            while (!tryLock(redisPrefix+key, value, expire)) {
+            while (!acquireLock(key, value, expire)) {
                 Thread.sleep(100);
             }
+            acquired = true;
+            lockStarts.put(key + '\n' + value, System.nanoTime());
         } catch (Exception e) {
             log.error("set redis occured an exception", e);
+        } finally {
+            lockMetrics.recordAcquire(key, System.nanoTime() - start, acquired);
         }
     }
 
@@ -95,25 +182,21 @@ public class RedisHelper {
     public boolean unLock(String key, String value) {
         try {
             // 使用lua脚本删除redis中匹配value的key，可以避免由于方法执行时间过长而redis锁自动过期失效的时候误删其他线程的锁
-            // spring自带的执行脚本方法中，集群模式直接抛出不支持执行脚本的异常，所以只能拿到原redis的connection来执行脚本
-            RedisCallback<Long> callback = (connection) -> {
-                RedisSerializer<String> stringRedisSerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
-                Object nativeConnection = connection.getNativeConnection();
-                byte[] keyByte = stringRedisSerializer.serialize(redisPrefix+key);
-                byte[] valueByte = stringRedisSerializer.serialize(value);
-                Object[] keys = new Object[]{keyByte};
-                Object[] values = new Object[]{valueByte};
-                if (nativeConnection instanceof RedisAsyncCommands) {
-                    RedisAsyncCommands redisAsyncCommands = ((RedisAsyncCommands) nativeConnection);
-                    Object rs = redisAsyncCommands.getStatefulConnection().sync().eval(UNLOCK_LUA, ScriptOutputType.INTEGER, keys, values);
-                    return (Long) rs;
-                }else{
-                    log.error("Unsupported command,it isnot RedisAsyncCommands class");
+            // 脚本只有一个 key, 集群模式下按该 key 的 slot 路由到对应节点执行
+            RedisSerializer<String> stringRedisSerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+            Long result = redisTemplate.execute(UNLOCK_SCRIPT, stringRedisSerializer, LONG_SERIALIZER,
+                    Collections.singletonList(redisPrefix + key), value);
+            boolean released = result != null && result > 0;
+            Long start = lockStarts.getIfPresent(key + '\n' + value);
+            if (start != null) {
+                lockStarts.invalidate(key + '\n' + value);
+                if (released) {
+                    lockMetrics.recordHeld(key, System.nanoTime() - start);
+                } else {
+                    lockMetrics.leaseExpired(key);
                 }
-                return 0L;
-            };
-            Long result = redisTemplate.execute(callback);
-            return result != null && result > 0;
+            }
+            return released;
         } catch (Exception e) {
             log.error("release lock occured an exception", e);
         } finally {
@@ -150,7 +233,7 @@ public class RedisHelper {
      * @return 时间(秒) 返回 0代表为永久有效
      */
     public Long getExpire(String key) {
-        return redisTemplate.getExpire(redisPrefix+key, TimeUnit.SECONDS);
+        return reads().getExpire(redisPrefix+key, TimeUnit.SECONDS);
     }
 
     /**
@@ -161,7 +244,7 @@ public class RedisHelper {
      */
     public Boolean hasKey(String key) {
         try {
-            return redisTemplate.hasKey(redisPrefix+key);
+            return reads().hasKey(redisPrefix+key);
         } catch (Exception e) {
             e.printStackTrace();
             return false;
@@ -184,17 +267,30 @@ public class RedisHelper {
                 }
                 redisTemplate.delete(keys);
             }
+            invalidateLocal(key);
         }
     }
 
     /**
-     * 普通缓存获取
+     * 普通缓存获取, 热点 key 短时间内从本地读取, 见 {@link HotKeyDetector}
      *
      * @param key 键
      * @return 值
      */
     public Object get(String key) {
-        return key == null ? null : redisTemplate.opsForValue().get(redisPrefix+key);
+        if (key == null) {
+            return null;
+        }
+        if (hotKeyDetector == null) {
+            return reads().opsForValue().get(redisPrefix+key);
+        }
+        Object value = hotKeyDetector.get(key);
+        if (value == null) {
+            long stamp = hotKeyDetector.stamp();
+            value = reads().opsForValue().get(redisPrefix+key);
+            hotKeyDetector.onGet(key, value, stamp);
+        }
+        return value;
     }
 
     /**
@@ -207,6 +303,7 @@ public class RedisHelper {
     public Boolean set(String key, Object value) {
         try {
             redisTemplate.opsForValue().set(redisPrefix+key, value);
+            invalidateLocal(key);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -229,6 +326,7 @@ public class RedisHelper {
             } else {
                 set(redisPrefix+key, value);
             }
+            invalidateLocal(key);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -247,7 +345,9 @@ public class RedisHelper {
         if (delta < 0) {
             throw new RuntimeException("递增因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(redisPrefix+key, delta);
+        Long value = redisTemplate.opsForValue().increment(redisPrefix+key, delta);
+        invalidateLocal(key);
+        return value;
     }
 
     /**
@@ -261,28 +361,39 @@ public class RedisHelper {
         if (delta < 0) {
             throw new RuntimeException("递减因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(redisPrefix+key, -delta);
+        Long value = redisTemplate.opsForValue().increment(redisPrefix+key, -delta);
+        invalidateLocal(key);
+        return value;
     }
 
     /**
-     * HashGet
+     * HashGet, 热点项短时间内从本地读取, 见 {@link HotKeyDetector}
      *
      * @param key  键 不能为 null
      * @param item 项 不能为 null
      * @return 值
      */
     public Object hget(String key, String item) {
-        return redisTemplate.opsForHash().get(redisPrefix+key, item);
+        if (hotKeyDetector == null) {
+            return reads().opsForHash().get(redisPrefix+key, item);
+        }
+        Object value = hotKeyDetector.hget(key, item);
+        if (value == null) {
+            long stamp = hotKeyDetector.stamp();
+            value = reads().opsForHash().get(redisPrefix+key, item);
+            hotKeyDetector.onHget(key, item, value, stamp);
+        }
+        return value;
     }
 
     /**
-     * 获取 hashKey对应的所有键值
+     * 获取 hashKey对应的所有键值, 一次读入内存; 大 hash 使用 {@link #hscan}
      *
      * @param key 键
      * @return 对应的多个键值
      */
     public Map<Object, Object> hmget(String key) {
-        return redisTemplate.opsForHash().entries(redisPrefix+key);
+        return reads().opsForHash().entries(redisPrefix+key);
     }
 
     /**
@@ -295,6 +406,7 @@ public class RedisHelper {
     public Boolean hmset(String key, Map<String, Object> map) {
         try {
             redisTemplate.opsForHash().putAll(redisPrefix+key, map);
+            invalidateLocal(key);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -313,6 +425,7 @@ public class RedisHelper {
     public Boolean hmset(String key, Map<String, Object> map, Long time) {
         try {
             redisTemplate.opsForHash().putAll(redisPrefix+key, map);
+            invalidateLocal(key);
             if (time > 0) {
                 expire(key, time);
             }
@@ -334,6 +447,7 @@ public class RedisHelper {
     public Boolean hset(String key, String item, Object value) {
         try {
             redisTemplate.opsForHash().put(redisPrefix+key, item, value);
+            invalidateLocal(key, item);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -353,6 +467,7 @@ public class RedisHelper {
     public Boolean hset(String key, String item, Object value, Long time) {
         try {
             redisTemplate.opsForHash().put(redisPrefix+key, item, value);
+            invalidateLocal(key, item);
             if (time > 0) {
                 expire(key, time);
             }
@@ -371,6 +486,9 @@ public class RedisHelper {
      */
     public void hdel(String key, Object... item) {
         redisTemplate.opsForHash().delete(redisPrefix+key, item);
+        for (Object i : item) {
+            invalidateLocal(key, i);
+        }
     }
 
     /**
@@ -381,7 +499,7 @@ public class RedisHelper {
      * @return true 存在 false不存在
      */
     public Boolean hHasKey(String key, String item) {
-        return redisTemplate.opsForHash().hasKey(redisPrefix+key, item);
+        return reads().opsForHash().hasKey(redisPrefix+key, item);
     }
 
     /**
@@ -393,7 +511,9 @@ public class RedisHelper {
      * @return Double
      */
     public Double hincr(String key, String item, Double by) {
-        return redisTemplate.opsForHash().increment(redisPrefix+key, item, by);
+        Double value = redisTemplate.opsForHash().increment(redisPrefix+key, item, by);
+        invalidateLocal(key, item);
+        return value;
     }
 
     /**
@@ -405,18 +525,20 @@ public class RedisHelper {
      * @return Double
      */
     public Double hdecr(String key, String item, Double by) {
-        return redisTemplate.opsForHash().increment(redisPrefix+key, item, -by);
+        Double value = redisTemplate.opsForHash().increment(redisPrefix+key, item, -by);
+        invalidateLocal(key, item);
+        return value;
     }
 
     /**
-     * 根据 key获取 Set中的所有值
+     * 根据 key获取 Set中的所有值, 一次读入内存; 大 set 使用 {@link #sscan}
      *
      * @param key 键
      * @return Set
      */
     public Set<Object> sGet(String key) {
         try {
-            return redisTemplate.opsForSet().members(redisPrefix+key);
+            return reads().opsForSet().members(redisPrefix+key);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -432,7 +554,7 @@ public class RedisHelper {
      */
     public Boolean sHasKey(String key, Object value) {
         try {
-            return redisTemplate.opsForSet().isMember(redisPrefix+key, value);
+            return reads().opsForSet().isMember(redisPrefix+key, value);
         } catch (Exception e) {
             e.printStackTrace();
             return false;
@@ -484,7 +606,7 @@ public class RedisHelper {
      */
     public Long sGetSetSize(String key) {
         try {
-            return redisTemplate.opsForSet().size(redisPrefix+key);
+            return reads().opsForSet().size(redisPrefix+key);
         } catch (Exception e) {
             e.printStackTrace();
             return 0L;
@@ -508,7 +630,7 @@ public class RedisHelper {
     }
 
     /**
-     * 获取list缓存的内容
+     * 获取list缓存的内容; 大 list 使用 {@link #lGet(String, int, Consumer)} 分页遍历
      *
      * @param key   键
      * @param start 开始
@@ -517,7 +639,7 @@ public class RedisHelper {
      */
     public List<Object> lGet(String key, Long start, Long end) {
         try {
-            return redisTemplate.opsForList().range(redisPrefix+key, start, end);
+            return reads().opsForList().range(redisPrefix+key, start, end);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -532,7 +654,7 @@ public class RedisHelper {
      */
     public Long lGetListSize(String key) {
         try {
-            return redisTemplate.opsForList().size(redisPrefix+key);
+            return reads().opsForList().size(redisPrefix+key);
         } catch (Exception e) {
             e.printStackTrace();
             return 0L;
@@ -549,7 +671,7 @@ public class RedisHelper {
      */
     public Object lGetIndex(String key, Long index) {
         try {
-            return redisTemplate.opsForList().index(redisPrefix+key, index);
+            return reads().opsForList().index(redisPrefix+key, index);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -666,4 +788,369 @@ public class RedisHelper {
             return 0L;
         }
     }
+
+    //-----------------------批量操作, 按 batchSize 拆分后使用 MGET/MSET 或 pipeline 执行-----------------------------
+
+    /**
+     * 批量获取
+     *
+     * @param keys 键
+     * @return 与 keys 顺序一致的值, 不存在的为 null
+     */
+    public List<Object> mget(Collection<String> keys) {
+        List<Object> result = new ArrayList<>(keys.size());
+        for (List<String> chunk : Iterables.partition(prefixed(keys), batchSize)) {
+            List<Object> values = reads().opsForValue().multiGet(chunk);
+            if (values != null) {
+                result.addAll(values);
+            } else {
+                result.addAll(Collections.nCopies(chunk.size(), null));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量放入
+     *
+     * @param map 键值
+     * @return true成功 false失败
+     */
+    public Boolean mset(Map<String, Object> map) {
+        try {
+            for (List<Map.Entry<String, Object>> chunk : Iterables.partition(map.entrySet(), batchSize)) {
+                Map<String, Object> values = new LinkedHashMap<>(chunk.size() * 2);
+                for (Map.Entry<String, Object> entry : chunk) {
+                    values.put(redisPrefix + entry.getKey(), entry.getValue());
+                }
+                redisTemplate.opsForValue().multiSet(values);
+            }
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            // 中途失败时前面的批次已写入, 同样清除
+            invalidateLocal(map.keySet());
+        }
+    }
+
+    /**
+     * 批量放入并设置时间
+     *
+     * @param map  键值
+     * @param time 时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false失败
+     */
+    public Boolean mset(Map<String, Object> map, Long time) {
+        if (time <= 0) {
+            return mset(map);
+        }
+        try {
+            for (List<Map.Entry<String, Object>> chunk : Iterables.partition(map.entrySet(), batchSize)) {
+                pipelined(operations -> {
+                    for (Map.Entry<String, Object> entry : chunk) {
+                        operations.opsForValue().set(redisPrefix + entry.getKey(), entry.getValue(), time, TimeUnit.SECONDS);
+                    }
+                });
+            }
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            invalidateLocal(map.keySet());
+        }
+    }
+
+    /**
+     * 批量获取 hash 中的多个项
+     *
+     * @param key    键
+     * @param fields 项
+     * @return 与 fields 顺序一致的值, 不存在的为 null
+     */
+    public List<Object> hmgetFields(String key, Collection<String> fields) {
+        List<Object> result = new ArrayList<>(fields.size());
+        for (List<String> chunk : Iterables.partition(fields, batchSize)) {
+            result.addAll(reads().opsForHash().multiGet(redisPrefix + key, new ArrayList<>(chunk)));
+        }
+        return result;
+    }
+
+    /**
+     * 批量指定缓存失效时间
+     *
+     * @param keys 键
+     * @param time 时间(秒)
+     * @return Boolean
+     */
+    public Boolean expire(Collection<String> keys, Long time) {
+        if (time <= 0) {
+            return true;
+        }
+        try {
+            for (List<String> chunk : Iterables.partition(prefixed(keys), batchSize)) {
+                pipelined(operations -> {
+                    for (String key : chunk) {
+                        operations.expire(key, time, TimeUnit.SECONDS);
+                    }
+                });
+            }
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * 批量递增
+     *
+     * @param deltas 键与要增加的值
+     * @return 键与递增后的值
+     */
+    public Map<String, Long> incrBy(Map<String, Long> deltas) {
+        Map<String, Long> result = new LinkedHashMap<>(deltas.size() * 2);
+        try {
+            for (List<Map.Entry<String, Long>> chunk : Iterables.partition(deltas.entrySet(), batchSize)) {
+                List<Object> values = pipelined(operations -> {
+                    for (Map.Entry<String, Long> entry : chunk) {
+                        operations.opsForValue().increment(redisPrefix + entry.getKey(), entry.getValue());
+                    }
+                });
+                for (int i = 0; i < chunk.size(); i++) {
+                    Object value = values.get(i);
+                    result.put(chunk.get(i).getKey(), value == null ? null : ((Number) value).longValue());
+                }
+            }
+        } finally {
+            invalidateLocal(deltas.keySet());
+        }
+        return result;
+    }
+
+    /**
+     * 批量删除
+     *
+     * @param keys 键
+     * @return 删除的个数
+     */
+    public Long del(Collection<String> keys) {
+        long count = 0;
+        try {
+            for (List<String> chunk : Iterables.partition(prefixed(keys), batchSize)) {
+                Long deleted = redisTemplate.delete(chunk);
+                count += deleted == null ? 0 : deleted;
+            }
+        } finally {
+            invalidateLocal(keys);
+        }
+        return count;
+    }
+
+    //-----------------------扫描-----------------------------
+
+    /**
+     * 以 SCAN 游标遍历匹配的 key, 不会像 KEYS 一样阻塞 redis
+     * <p>
+     * 集群模式下逐个主节点 SCAN, 耗时随节点数增长; 同一业务的 key 使用 hash tag(如 {tenant:1}:*)时仍需遍历全部节点
+     *
+     * @param pattern 匹配规则, 不含全局前缀, 如 tenant:1:*
+     * @param count   每次 SCAN 的建议数量
+     * @param action  每个 key 的处理, 传入的 key 不含全局前缀
+     * @return 遍历的 key 个数, SCAN 期间新增或删除的 key 可能被遗漏或重复返回
+     */
+    public long scan(String pattern, int count, Consumer<String> action) {
+        long[] total = {0};
+        scanKeys(ScanOptions.scanOptions().match(redisPrefix + pattern).count(count).build(), key -> {
+            action.accept(unprefixed(key));
+            total[0]++;
+        });
+        return total[0];
+    }
+
+    /**
+     * 删除匹配的全部 key, SCAN 后按 batchSize 分批 UNLINK, 内存在 redis 后台线程释放
+     *
+     * @param pattern 匹配规则, 不含全局前缀
+     * @return 删除的个数
+     */
+    public long deleteByPattern(String pattern) {
+        long[] deleted = {0};
+        List<String> chunk = new ArrayList<>(batchSize);
+        scanKeys(ScanOptions.scanOptions().match(redisPrefix + pattern).count(batchSize).build(), key -> {
+            chunk.add(key);
+            if (chunk.size() >= batchSize) {
+                deleted[0] += unlink(chunk);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            deleted[0] += unlink(chunk);
+        }
+        return deleted[0];
+    }
+
+    /**
+     * 以 HSCAN 遍历 hash, 大 hash 代替 {@link #hmget(String)}
+     *
+     * @param key     键
+     * @param pattern 项的匹配规则, 为 null 时全部
+     * @param count   每次 HSCAN 的建议数量
+     * @param action  每一项的处理
+     * @return 遍历的项数
+     */
+    public long hscan(String key, String pattern, int count, BiConsumer<Object, Object> action) {
+        long total = 0;
+        try (Cursor<Map.Entry<Object, Object>> cursor = reads().opsForHash().scan(redisPrefix + key, scanOptions(pattern, count))) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                action.accept(entry.getKey(), entry.getValue());
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 以 SSCAN 遍历 set, 大 set 代替 {@link #sGet(String)}
+     *
+     * @param key     键
+     * @param pattern 值的匹配规则, 为 null 时全部
+     * @param count   每次 SSCAN 的建议数量
+     * @param action  每个值的处理
+     * @return 遍历的值个数
+     */
+    public long sscan(String key, String pattern, int count, Consumer<Object> action) {
+        long total = 0;
+        try (Cursor<Object> cursor = reads().opsForSet().scan(redisPrefix + key, scanOptions(pattern, count))) {
+            while (cursor.hasNext()) {
+                action.accept(cursor.next());
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 分页遍历 list, 每次 LRANGE 一页, 大 list 代替 {@link #lGet(String, Long, Long)}
+     *
+     * @param key      键
+     * @param pageSize 每页数量
+     * @param action   每页的处理
+     * @return 遍历的元素个数
+     */
+    public long lGet(String key, int pageSize, Consumer<List<Object>> action) {
+        long total = 0;
+        while (true) {
+            List<Object> page = reads().opsForList().range(redisPrefix + key, total, total + pageSize - 1);
+            if (page == null || page.isEmpty()) {
+                return total;
+            }
+            action.accept(page);
+            total += page.size();
+            if (page.size() < pageSize) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * 集群模式下 SCAN 只作用于单个节点, 依次遍历每个主节点; 单机与哨兵模式直接使用连接的游标
+     */
+    private void scanKeys(ScanOptions options, Consumer<String> action) {
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            if (connection instanceof RedisClusterConnection) {
+                RedisClusterConnection clusterConnection = (RedisClusterConnection) connection;
+                for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+                    if (!node.isMaster()) {
+                        continue;
+                    }
+                    try (Cursor<byte[]> cursor = clusterConnection.scan(node, options)) {
+                        while (cursor.hasNext()) {
+                            action.accept(keySerializer.deserialize(cursor.next()));
+                        }
+                    }
+                }
+            } else {
+                try (Cursor<byte[]> cursor = connection.scan(options)) {
+                    while (cursor.hasNext()) {
+                        action.accept(keySerializer.deserialize(cursor.next()));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 本节点写入 redis 后清除热点 key 的本地值; 写入前清除时, 并发读取可能把旧值重新放入本地缓存
+     */
+    private void invalidateLocal(String... keys) {
+        if (hotKeyDetector != null) {
+            for (String key : keys) {
+                hotKeyDetector.invalidate(key);
+            }
+        }
+    }
+
+    private void invalidateLocal(Collection<String> keys) {
+        if (hotKeyDetector != null) {
+            for (String key : keys) {
+                hotKeyDetector.invalidate(key);
+            }
+        }
+    }
+
+    private void invalidateLocal(String key, Object item) {
+        if (hotKeyDetector != null) {
+            hotKeyDetector.invalidate(key, item);
+        }
+    }
+
+    private long unlink(List<String> keys) {
+        Long count = redisTemplate.unlink(keys);
+        for (String key : keys) {
+            invalidateLocal(unprefixed(key));
+        }
+        return count == null ? 0 : count;
+    }
+
+    private static ScanOptions scanOptions(String pattern, int count) {
+        ScanOptions.ScanOptionsBuilder builder = ScanOptions.scanOptions().count(count);
+        if (pattern != null) {
+            builder.match(pattern);
+        }
+        return builder.build();
+    }
+
+    private static String unprefixed(String key) {
+        return key.startsWith(redisPrefix) ? key.substring(redisPrefix.length()) : key;
+    }
+
+    private List<String> prefixed(Collection<String> keys) {
+        List<String> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            result.add(redisPrefix + key);
+        }
+        return result;
+    }
+
+    /**
+     * 在同一连接上以 pipeline 方式执行, 所有命令一次发出
+     *
+     * @param commands 命令
+     * @return 每条命令的结果
+     */
+    private List<Object> pipelined(Consumer<RedisOperations<String, Object>> commands) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                commands.accept((RedisOperations<String, Object>) operations);
+                return null;
+            }
+        });
+    }
 }
@@ -0,0 +1,54 @@
+package com.boot.common.helper;
+
+import io.lettuce.core.codec.RedisCodec;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 使用 spring 的 RedisSerializer 编解码的 lettuce codec, 与 RedisTemplate 读写的数据互通
+ * @author Yarns
+ */
+public class SerializerRedisCodec<V> implements RedisCodec<String, V> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final RedisSerializer<String> keySerializer;
+
+    private final RedisSerializer<V> valueSerializer;
+
+    public SerializerRedisCodec(RedisSerializer<String> keySerializer, RedisSerializer<V> valueSerializer) {
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    @Override
+    public String decodeKey(ByteBuffer bytes) {
+        return keySerializer.deserialize(toArray(bytes));
+    }
+
+    @Override
+    public V decodeValue(ByteBuffer bytes) {
+        return valueSerializer.deserialize(toArray(bytes));
+    }
+
+    @Override
+    public ByteBuffer encodeKey(String key) {
+        return wrap(keySerializer.serialize(key));
+    }
+
+    @Override
+    public ByteBuffer encodeValue(V value) {
+        return wrap(valueSerializer.serialize(value));
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer wrap(byte[] bytes) {
+        return ByteBuffer.wrap(bytes == null ? EMPTY : bytes);
+    }
+}
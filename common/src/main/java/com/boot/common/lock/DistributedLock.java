@@ -0,0 +1,59 @@
+package com.boot.common.lock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 分布式锁, 可重入, 以 节点 + 线程 标识持有者
+ * <p>
+ * 不指定租期时由看门狗在持有期间定期续期, 持有者进程退出后锁在租期内自动过期;
+ * 指定租期时到期自动释放, 不续期
+ * @author Yarns
+ */
+public interface DistributedLock extends Lock {
+
+    /**
+     * @return 锁名称
+     */
+    String getName();
+
+    /**
+     * 获取锁, 阻塞直到成功
+     * @param leaseTime 租期, 小于等于 0 时使用看门狗续期
+     * @param unit      时间单位
+     */
+    void lock(long leaseTime, TimeUnit unit);
+
+    /**
+     * 在 waitTime 内尝试获取锁
+     * @param waitTime  最长等待时间, 小于 0 时一直等待
+     * @param leaseTime 租期, 小于等于 0 时使用看门狗续期
+     * @param unit      时间单位
+     * @return 是否获取成功
+     * @throws InterruptedException 等待时被中断
+     */
+    boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * @return 当前线程是否持有锁
+     */
+    boolean isHeldByCurrentThread();
+
+    /**
+     * 释放锁, 重入多少次需要释放多少次
+     * @throws IllegalMonitorStateException 当前线程未持有锁, 或租期已过
+     */
+    @Override
+    void unlock();
+
+    @Override
+    default boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return tryLock(time, -1, unit);
+    }
+
+    @Override
+    default Condition newCondition() {
+        throw new UnsupportedOperationException("分布式锁不支持Condition");
+    }
+}
@@ -0,0 +1,130 @@
+package com.boot.common.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式锁指标, 通过 /actuator/metrics 查看
+ * <ul>
+ *     <li>lock.acquire: 获取耗时, result=acquired/timeout 区分成功与失败</li>
+ *     <li>lock.held: 持有时长, 完全释放时记录</li>
+ *     <li>lock.lease.expired: 释放时发现租期已过的次数</li>
+ * </ul>
+ * 锁名称作为 name 标签, 超过 maxNames 个后新名称计入 other, 避免带 id 的锁名称撑爆指标
+ * @author Yarns
+ */
+public class LockMetrics {
+
+    static final String OTHER = "other";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+
+    private final int maxNames;
+
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public LockMetrics(MeterRegistry registry, int maxNames) {
+        this.registry = registry;
+        this.maxNames = maxNames;
+    }
+
+    /**
+     * @return 不输出任何指标
+     */
+    public static LockMetrics noop() {
+        return new LockMetrics(new CompositeMeterRegistry(), 0);
+    }
+
+    /**
+     * @param name     锁名称
+     * @param nanos    获取耗时
+     * @param acquired 是否获取成功
+     */
+    public void recordAcquire(String name, long nanos, boolean acquired) {
+        Meters m = meters(name);
+        (acquired ? m.acquired : m.timeout).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param name  锁名称
+     * @param nanos 持有时长
+     */
+    public void recordHeld(String name, long nanos) {
+        meters(name).held.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param name 锁名称
+     */
+    public void leaseExpired(String name) {
+        meters(name).leaseExpired.increment();
+    }
+
+    private Meters meters(String name) {
+        String tag = tag(name);
+        Meters m = meters.get(tag);
+        return m != null ? m : meters.computeIfAbsent(tag, Meters::new);
+    }
+
+    private String tag(String name) {
+        if (names.contains(name)) {
+            return name;
+        }
+        if (names.size() < maxNames && names.add(name)) {
+            return name;
+        }
+        return names.contains(name) ? name : OTHER;
+    }
+
+    private final class Meters {
+
+        final Timer acquired;
+
+        final Timer timeout;
+
+        final Timer held;
+
+        final Counter leaseExpired;
+
+        Meters(String name) {
+            this.acquired = acquireTimer(name, "acquired");
+            this.timeout = acquireTimer(name, "timeout");
+            this.held = Timer.builder("lock.held")
+                    .description("分布式锁持有时长")
+                    .tag("name", name)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofMinutes(5))
+                    .register(registry);
+            this.leaseExpired = Counter.builder("lock.lease.expired")
+                    .description("释放时租期已过的次数")
+                    .tag("name", name)
+                    .register(registry);
+        }
+
+        private Timer acquireTimer(String name, String result) {
+            return Timer.builder("lock.acquire")
+                    .description("分布式锁获取耗时")
+                    .tag("name", name)
+                    .tag("result", result)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.boot.common.lock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 redis 的可重入分布式锁, 由 {@link RedisLockManager#getLock(String)} 创建
+ * @author Yarns
+ */
+public class RedisDistributedLock implements DistributedLock {
+
+    private final RedisLockManager manager;
+
+    private final String name;
+
+    RedisDistributedLock(RedisLockManager manager, String name) {
+        this.manager = manager;
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void lock() {
+        lock(-1, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (tryLock(-1, leaseTime, unit)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        tryLock(-1, -1, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean tryLock() {
+        long threadId = Thread.currentThread().getId();
+        long start = System.nanoTime();
+        boolean acquired = acquire(threadId, -1) == null;
+        manager.onAcquire(name, threadId, System.nanoTime() - start, acquired);
+        return acquired;
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        long threadId = Thread.currentThread().getId();
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = tryLock(threadId, waitTime, leaseTime, unit);
+            return acquired;
+        } finally {
+            manager.onAcquire(name, threadId, System.nanoTime() - start, acquired);
+        }
+    }
+
+    private boolean tryLock(long threadId, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        long leaseMillis = leaseTime > 0 ? unit.toMillis(leaseTime) : -1;
+        Long ttl = acquire(threadId, leaseMillis);
+        if (ttl == null) {
+            return true;
+        }
+        if (waitTime == 0) {
+            return false;
+        }
+        long deadline = waitTime > 0 ? System.nanoTime() + unit.toNanos(waitTime) : 0;
+        // 先登记再重试, 避免错过两次尝试之间的释放通知
+        RedisLockManager.Waiters waiters = manager.subscribe(name);
+        try {
+            while (true) {
+                ttl = acquire(threadId, leaseMillis);
+                if (ttl == null) {
+                    return true;
+                }
+                long remaining = waitTime > 0 ? deadline - System.nanoTime() : Long.MAX_VALUE;
+                if (remaining <= 0) {
+                    return false;
+                }
+                // 持有者崩溃时没有通知, 最多等到租期结束
+                long waitNanos = ttl >= 0 ? Math.min(TimeUnit.MILLISECONDS.toNanos(ttl), remaining) : remaining;
+                waiters.signal.tryAcquire(waitNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            manager.unsubscribe(name);
+        }
+    }
+
+    @Override
+    public boolean isHeldByCurrentThread() {
+        return manager.isHeld(name, Thread.currentThread().getId());
+    }
+
+    @Override
+    public void unlock() {
+        long threadId = Thread.currentThread().getId();
+        Long result = manager.release(name, threadId);
+        manager.onRelease(name, threadId, result);
+        if (result == null) {
+            manager.cancelRenewal(name, threadId);
+            throw new IllegalMonitorStateException("当前线程未持有锁或租期已过: " + name);
+        }
+        if (result > 0) {
+            manager.cancelRenewal(name, threadId);
+        }
+    }
+
+    /**
+     * @return 获取成功返回 null, 否则返回剩余租期(毫秒)
+     */
+    private Long acquire(long threadId, long leaseMillis) {
+        Long ttl = manager.tryAcquire(name, leaseMillis > 0 ? leaseMillis : manager.getWatchdogTimeout(), threadId);
+        if (ttl == null && leaseMillis <= 0) {
+            manager.scheduleRenewal(name, threadId);
+        }
+        return ttl;
+    }
+}
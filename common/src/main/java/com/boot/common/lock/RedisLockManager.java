@@ -0,0 +1,278 @@
+package com.boot.common.lock;
+
+import com.boot.common.helper.RedisHelper;
+import com.boot.common.properties.LockProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 redis 的 {@link DistributedLock} 管理
+ * <p>
+ * 锁保存为 hash: 字段为 节点id:线程id, 值为重入次数, 获取、释放与续期都由 lua 脚本原子完成.
+ * 释放时向频道发布锁名称, 等待该锁的本节点线程被唤醒一个后重新尝试, 不再轮询
+ * @author Yarns
+ */
+@Slf4j
+public class RedisLockManager implements MessageListener, DisposableBean {
+
+    /**
+     * 获取成功返回 nil, 否则返回剩余租期(毫秒)
+     */
+    private static final RedisScript<Long> LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('exists', KEYS[1]) == 0) or (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then " +
+            "    redis.call('hincrby', KEYS[1], ARGV[2], 1); " +
+            "    redis.call('pexpire', KEYS[1], ARGV[1]); " +
+            "    return nil; " +
+            "end; " +
+            "return redis.call('pttl', KEYS[1]);", Long.class);
+
+    /**
+     * 未持有返回 nil, 仍有重入返回 0, 完全释放返回 1 并发布通知;
+     * 仍有重入时不修改过期时间, 保留外层指定的租期或看门狗续期的时间
+     */
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('hexists', KEYS[1], ARGV[1]) == 0) then " +
+            "    return nil; " +
+            "end; " +
+            "if (redis.call('hincrby', KEYS[1], ARGV[1], -1) > 0) then " +
+            "    return 0; " +
+            "end; " +
+            "redis.call('del', KEYS[1]); " +
+            "redis.call('publish', ARGV[2], ARGV[3]); " +
+            "return 1;", Long.class);
+
+    /**
+     * 仍持有时续期返回 1, 否则返回 0
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then " +
+            "    redis.call('pexpire', KEYS[1], ARGV[1]); " +
+            "    return 1; " +
+            "end; " +
+            "return 0;", Long.class);
+
+    private static final RedisSerializer<Long> RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private final String clientId = UUID.randomUUID().toString();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final LockProperties properties;
+
+    private final long watchdogTimeout;
+
+    private final Map<String, Waiters> waiters = new ConcurrentHashMap<>();
+
+    private final Map<String, ScheduledFuture<?>> renewals = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点当前持有的锁, 键与续期相同, 只由持有线程修改
+     */
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+
+    private volatile LockMetrics metrics = LockMetrics.noop();
+
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Lock-Watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisLockManager(RedisTemplate<String, Object> redisTemplate, LockProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.watchdogTimeout = properties.getWatchdogTimeout().toMillis();
+    }
+
+    /**
+     * @param name 锁名称
+     * @return 同名的锁在所有节点互斥
+     */
+    public DistributedLock getLock(String name) {
+        return new RedisDistributedLock(this, name);
+    }
+
+    public LockMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(LockMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Waiters entry = waiters.get(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (entry != null) {
+            entry.signal.release();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+    }
+
+    long getWatchdogTimeout() {
+        return watchdogTimeout;
+    }
+
+    /**
+     * @return 获取成功返回 null, 否则返回剩余租期(毫秒)
+     */
+    Long tryAcquire(String name, long leaseMillis, long threadId) {
+        return redisTemplate.execute(LOCK_SCRIPT, RedisSerializer.string(), RESULT_SERIALIZER,
+                Collections.singletonList(key(name)), String.valueOf(leaseMillis), holder(threadId));
+    }
+
+    /**
+     * @return 未持有返回 null, 仍有重入返回 0, 完全释放返回 1
+     */
+    Long release(String name, long threadId) {
+        return redisTemplate.execute(UNLOCK_SCRIPT, RedisSerializer.string(), RESULT_SERIALIZER,
+                Collections.singletonList(key(name)), holder(threadId), properties.getChannel(), name);
+    }
+
+    boolean isHeld(String name, long threadId) {
+        byte[] key = key(name).getBytes(StandardCharsets.UTF_8);
+        byte[] field = holder(threadId).getBytes(StandardCharsets.UTF_8);
+        return Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.hashCommands().hExists(key, field)));
+    }
+
+    /**
+     * 开始看门狗续期, 同一持有者重入时只有一个续期任务
+     */
+    void scheduleRenewal(String name, long threadId) {
+        long period = Math.max(watchdogTimeout / 3, 1);
+        renewals.computeIfAbsent(renewalKey(name, threadId), k -> watchdog.scheduleAtFixedRate(
+                () -> renew(name, threadId), period, period, TimeUnit.MILLISECONDS));
+    }
+
+    void cancelRenewal(String name, long threadId) {
+        ScheduledFuture<?> future = renewals.remove(renewalKey(name, threadId));
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * 记录获取结果, 成功时开始计算持有时长
+     */
+    void onAcquire(String name, long threadId, long nanos, boolean acquired) {
+        metrics.recordAcquire(name, nanos, acquired);
+        if (acquired) {
+            long now = System.nanoTime();
+            holds.compute(renewalKey(name, threadId), (k, hold) -> {
+                if (hold == null) {
+                    return new Hold(now);
+                }
+                hold.depth++;
+                return hold;
+            });
+        }
+    }
+
+    /**
+     * @param result {@link #release(String, long)} 的结果
+     */
+    void onRelease(String name, long threadId, Long result) {
+        String key = renewalKey(name, threadId);
+        if (result != null && result == 0) {
+            Hold hold = holds.get(key);
+            if (hold != null) {
+                hold.depth--;
+            }
+            return;
+        }
+        Hold hold = holds.remove(key);
+        if (result == null) {
+            metrics.leaseExpired(name);
+        } else if (hold != null) {
+            metrics.recordHeld(name, System.nanoTime() - hold.start);
+        }
+    }
+
+    Waiters subscribe(String name) {
+        return waiters.compute(name, (k, entry) -> {
+            if (entry == null) {
+                entry = new Waiters();
+            }
+            entry.count++;
+            return entry;
+        });
+    }
+
+    void unsubscribe(String name) {
+        waiters.computeIfPresent(name, (k, entry) -> --entry.count == 0 ? null : entry);
+    }
+
+    private void renew(String name, long threadId) {
+        try {
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, RedisSerializer.string(), RESULT_SERIALIZER,
+                    Collections.singletonList(key(name)), String.valueOf(watchdogTimeout), holder(threadId));
+            if (renewed == null || renewed == 0) {
+                log.warn("锁已不再持有, 停止续期: {}", name);
+                cancelRenewal(name, threadId);
+            }
+        } catch (Exception e) {
+            // 下一周期重试, 租期内恢复即可
+            log.warn("锁续期失败: {}", name, e);
+        }
+    }
+
+    private String key(String name) {
+        return RedisHelper.getRedisPrefix() + properties.getKeyPrefix() + name;
+    }
+
+    private String holder(long threadId) {
+        return clientId + ':' + threadId;
+    }
+
+    private static String renewalKey(String name, long threadId) {
+        return threadId + ":" + name;
+    }
+
+    private static final class Hold {
+
+        final long start;
+
+        int depth = 1;
+
+        Hold(long start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * 本节点等待同一把锁的线程
+     */
+    static final class Waiters {
+
+        final Semaphore signal = new Semaphore(0);
+
+        /**
+         * 只在 ConcurrentHashMap.compute 中修改
+         */
+        int count;
+    }
+}
@@ -0,0 +1,66 @@
+package com.boot.common.properties;
+
+import com.boot.common.audit.AuditOverflowPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 操作日志配置
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.audit")
+public class AuditProperties {
+
+    /**
+     * 是否记录操作日志
+     */
+    private boolean enabled = true;
+
+    /**
+     * 队列容量
+     */
+    private int queueCapacity = 4096;
+
+    /**
+     * 每批写出的最大记录数
+     */
+    private int batchSize = 256;
+
+    /**
+     * 队列满时的处理策略
+     */
+    private AuditOverflowPolicy overflowPolicy = AuditOverflowPolicy.DROP;
+
+    /**
+     * SAMPLE策略: 队列使用率超过该比例后开始采样
+     */
+    private double sampleWatermark = 0.5D;
+
+    /**
+     * SAMPLE策略: 每 sampleRate 条保留 1 条
+     */
+    private int sampleRate = 10;
+
+    /**
+     * BLOCK策略: 请求线程最长等待时间
+     */
+    private Duration blockTimeout = Duration.ofMillis(500);
+
+    /**
+     * 单个参数或返回值序列化后的最大长度, 超出截断
+     */
+    private int maxValueLength = 2048;
+
+    /**
+     * 全部参数序列化后的最大长度, 超出截断
+     */
+    private int maxArgumentsLength = 8192;
+
+    /**
+     * 停机时等待队列写完的最长时间
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+}
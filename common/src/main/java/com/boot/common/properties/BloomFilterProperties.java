@@ -0,0 +1,58 @@
+package com.boot.common.properties;
+
+import com.boot.common.bloom.BloomFilterType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 布隆过滤器配置, 用于拦截一定不存在的 id, 避免缓存穿透
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.bloom")
+public class BloomFilterProperties {
+
+    /**
+     * 关闭后 @BloomGuard 不拦截
+     */
+    private boolean enabled = true;
+
+    /**
+     * redis 过滤器的 key 前缀
+     */
+    private String keyPrefix = "bloom:";
+
+    /**
+     * 本地过滤器新增值的广播频道, 其他节点收到后写入各自的过滤器
+     */
+    private String channel = "framework:bloom:put";
+
+    /**
+     * redis 过滤器每次 pipeline 写入的值数量
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 按名称配置过滤器, 只有 BloomFilterLoader 没有配置的使用默认值
+     */
+    private Map<String, Spec> filters = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+
+        private BloomFilterType type = BloomFilterType.LOCAL;
+
+        /**
+         * 预计的值数量, 超过后误判率上升; 需要预留增长空间
+         */
+        private long expectedInsertions = 1_000_000L;
+
+        /**
+         * 误判率, 即不存在的值被判断为可能存在的比例
+         */
+        private double fpp = 0.01D;
+    }
+}
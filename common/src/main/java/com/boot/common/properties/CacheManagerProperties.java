@@ -0,0 +1,186 @@
+package com.boot.common.properties;
+
+import com.boot.common.cache.SerializerType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存配置, 本地一级缓存 + redis 二级缓存
+ * <p>
+ * 顶层为默认配置, caches 下按缓存名称覆盖, 未配置的项使用默认值
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.cache")
+public class CacheManagerProperties {
+
+    /**
+     * 一级缓存失效通知的 redis 频道
+     */
+    private String invalidationChannel = "framework:cache:invalidation";
+
+    /**
+     * redis 过期时间, 为 0 时不过期
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * 过期时间随机增加的最大比例, 避免同一批 key 同时过期
+     */
+    private double ttlJitter = 0.1D;
+
+    /**
+     * 是否缓存空值, 防止不存在的数据反复穿透到数据库
+     */
+    private boolean cacheNullValues = false;
+
+    /**
+     * 空值的过期时间, 不超过 ttl
+     */
+    private Duration nullValueTtl = Duration.ofMinutes(5);
+
+    /**
+     * 完整的 redis key 前缀, 替换默认的 缓存名称::, 如 "dict:" 得到 dict:key;
+     * 为空时使用 缓存名称::. 各缓存共用同一前缀时 key 会互相覆盖, 一般只在 caches 下按缓存配置
+     */
+    private String keyPrefix;
+
+    /**
+     * 值的序列化方式, 为空时与 redisTemplate 一致
+     */
+    private SerializerType serializer;
+
+    /**
+     * 同一节点上同一个 key 的并发加载合并为一次, 需要 @Cacheable(sync = true)
+     */
+    private boolean singleFlight = true;
+
+    /**
+     * 加载前获取 redis 锁, 多个节点同一个 key 只有一个节点查询数据库, 其余节点等待结果
+     */
+    private boolean loadLock = false;
+
+    /**
+     * 加载锁的过期时间, 也是其他节点等待结果的最长时间, 超时后各自加载
+     */
+    private Duration loadLockTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 提前刷新(XFetch)系数, 越大越早刷新, 0 不提前刷新; 由加载过该 key 的节点在异步线程池中刷新
+     */
+    private double earlyRefreshBeta = 0D;
+
+    /**
+     * 默认 key 生成器: 参数部分超过该长度时替换为摘要
+     */
+    private int maxKeyLength = 128;
+
+    /**
+     * 默认 key 生成器: 参数类型未重写 toString 时报错; 默认只告警并按 类名@hashCode 生成 key
+     */
+    private boolean strictKeys = false;
+
+    /**
+     * 一级缓存的默认配置
+     */
+    private Local local = new Local();
+
+    /**
+     * 按缓存名称的配置
+     */
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    /**
+     * 合并默认配置与缓存自身的配置
+     * @param name 缓存名称
+     * @return 所有项都有值的配置
+     */
+    public Spec resolve(String name) {
+        Spec spec = caches.get(name);
+        if (spec == null) {
+            spec = new Spec();
+        }
+        Spec resolved = new Spec();
+        resolved.setTtl(spec.getTtl() != null ? spec.getTtl() : ttl);
+        resolved.setTtlJitter(spec.getTtlJitter() != null ? spec.getTtlJitter() : ttlJitter);
+        resolved.setCacheNullValues(spec.getCacheNullValues() != null ? spec.getCacheNullValues() : cacheNullValues);
+        resolved.setNullValueTtl(spec.getNullValueTtl() != null ? spec.getNullValueTtl() : nullValueTtl);
+        resolved.setKeyPrefix(spec.getKeyPrefix() != null ? spec.getKeyPrefix() : keyPrefix);
+        resolved.setSerializer(spec.getSerializer() != null ? spec.getSerializer() : serializer);
+        resolved.setSingleFlight(spec.getSingleFlight() != null ? spec.getSingleFlight() : singleFlight);
+        resolved.setLoadLock(spec.getLoadLock() != null ? spec.getLoadLock() : loadLock);
+        resolved.setLoadLockTimeout(spec.getLoadLockTimeout() != null ? spec.getLoadLockTimeout() : loadLockTimeout);
+        resolved.setEarlyRefreshBeta(spec.getEarlyRefreshBeta() != null ? spec.getEarlyRefreshBeta() : earlyRefreshBeta);
+        resolved.setLocal(spec.getLocal() != null ? spec.getLocal().merge(local) : local);
+        return resolved;
+    }
+
+    @Data
+    public static class Spec {
+
+        private Duration ttl;
+
+        private Double ttlJitter;
+
+        private Boolean cacheNullValues;
+
+        private Duration nullValueTtl;
+
+        private String keyPrefix;
+
+        private SerializerType serializer;
+
+        private Boolean singleFlight;
+
+        private Boolean loadLock;
+
+        private Duration loadLockTimeout;
+
+        private Double earlyRefreshBeta;
+
+        private Local local = new Local(null, null, null);
+    }
+
+    @Data
+    public static class Local {
+
+        /**
+         * 是否开启一级缓存
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 最大条目数
+         */
+        private Integer maximumSize = 10000;
+
+        /**
+         * 写入后过期时间, 兜底失效通知丢失的情况
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(1);
+
+        public Local() {
+        }
+
+        public Local(Boolean enabled, Integer maximumSize, Duration expireAfterWrite) {
+            this.enabled = enabled;
+            this.maximumSize = maximumSize;
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        /**
+         * 未配置的项使用 defaults 中的值
+         * @param defaults 默认配置
+         * @return 合并后的配置
+         */
+        public Local merge(Local defaults) {
+            return new Local(enabled != null ? enabled : defaults.enabled,
+                    maximumSize != null ? maximumSize : defaults.maximumSize,
+                    expireAfterWrite != null ? expireAfterWrite : defaults.expireAfterWrite);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.boot.common.properties;
+
+import com.boot.common.executor.ExecutorMode;
+import com.boot.common.executor.RejectPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 异步线程池 {@link com.boot.common.constant.Constants#ASYNC_POOL} 配置
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.executor")
+public class ExecutorProperties {
+
+    /**
+     * platform 有界线程池 / virtual 每个任务一个虚拟线程(JDK 21+, 不支持时退回 platform)
+     */
+    private ExecutorMode mode = ExecutorMode.PLATFORM;
+
+    /**
+     * platform: 核心线程数, 默认 cpu 核数
+     */
+    private int corePoolSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * platform: 最大线程数, 队列满后才会超过核心线程数
+     */
+    private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 4;
+
+    /**
+     * platform: 队列容量
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * platform: 超过核心线程数的线程空闲多久后回收
+     */
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    /**
+     * virtual: 同时执行的最大任务数, 用于保护下游(数据库连接池等), 0 不限制
+     */
+    private int maxConcurrency = 0;
+
+    /**
+     * 线程池满(platform 队列满且达到最大线程数, virtual 达到 maxConcurrency)时的处理
+     */
+    private RejectPolicy rejectPolicy = RejectPolicy.ABORT;
+
+    private String threadNamePrefix = "Async-Thread-";
+
+    /**
+     * 停机时等待任务完成的时间
+     */
+    private Duration awaitTermination = Duration.ofSeconds(60);
+}
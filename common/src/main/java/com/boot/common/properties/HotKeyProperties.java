@@ -0,0 +1,52 @@
+package com.boot.common.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * RedisHelper.get/hget 热点 key 探测配置
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.redis.hot-key")
+public class HotKeyProperties {
+
+    /**
+     * 是否探测并在本地缓存热点 key; 开启后其他节点的修改最多延迟 local-ttl 可见, 需要按业务确认后开启
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每 sampleRate 次读取抽样 1 次
+     */
+    private int sampleRate = 10;
+
+    /**
+     * 一个窗口内估算读取次数达到该值成为热点
+     */
+    private long threshold = 1000;
+
+    /**
+     * 统计窗口
+     */
+    private Duration window = Duration.ofSeconds(1);
+
+    /**
+     * 热点值在本地缓存的时间, 即其他节点修改后最长的不一致时间
+     */
+    private Duration localTtl = Duration.ofSeconds(1);
+
+    /**
+     * 最多同时存在的热点数量
+     */
+    private int maxHotKeys = 1000;
+
+    /**
+     * count-min sketch 的行数与每行计数器个数
+     */
+    private int sketchDepth = 4;
+
+    private int sketchWidth = 8192;
+}
@@ -0,0 +1,46 @@
+package com.boot.common.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * ip 地区解析配置
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.ip-region")
+public class IpRegionProperties {
+
+    /**
+     * 外部数据库文件路径, 配置后优先使用并在文件变化时热加载, 不配置则只使用 jar 内的数据库
+     */
+    private String externalPath;
+
+    /**
+     * 外部数据库文件检查间隔
+     */
+    private Duration reloadInterval = Duration.ofMinutes(1);
+
+    private Cache cache = new Cache();
+
+    @Data
+    public static class Cache {
+
+        /**
+         * 是否开启缓存
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最大条目数
+         */
+        private int maximumSize = 65536;
+
+        /**
+         * 写入后过期时间, 为 0 时不过期
+         */
+        private Duration expireAfterWrite = Duration.ofHours(1);
+    }
+}
@@ -0,0 +1,35 @@
+package com.boot.common.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 分布式锁配置
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.lock")
+public class LockProperties {
+
+    /**
+     * 锁 key 前缀, 在 RedisHelper 的全局前缀之后
+     */
+    private String keyPrefix = "lock:";
+
+    /**
+     * 释放通知的 redis 频道
+     */
+    private String channel = "framework:lock:released";
+
+    /**
+     * 看门狗租期, 持有期间每 1/3 租期续期一次
+     */
+    private Duration watchdogTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 指标中单独统计的锁名称数量, 超出的计入 other
+     */
+    private int metricsMaxNames = 200;
+}
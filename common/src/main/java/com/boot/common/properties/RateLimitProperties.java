@@ -0,0 +1,41 @@
+package com.boot.common.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 限流配置
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 是否检查 @RateLimit
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每次从 redis 预取的令牌数占桶容量的比例, 预取的令牌在本节点直接使用; 为 0 时每个请求都访问 redis.
+     * 只对按接口限流的共享桶生效, 且不超过 prefetch-ttl 内补充的令牌数
+     */
+    private double prefetchRatio = 0.1D;
+
+    /**
+     * 每次最多预取的令牌数
+     */
+    private int maxPrefetch = 50;
+
+    /**
+     * 预取令牌的有效期, 过期未用完的丢弃, 避免单个节点囤积
+     */
+    private Duration prefetchTtl = Duration.ofMillis(200);
+
+    /**
+     * redis 不可用时是否放行
+     */
+    private boolean failOpen = true;
+}
@@ -0,0 +1,28 @@
+package com.boot.common.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * lettuce 客户端资源配置, 连接与超时使用 spring.redis.*
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.redis.client")
+public class RedisClientProperties {
+
+    /**
+     * netty I/O 线程数, 所有连接共用; 0 时使用 lettuce 默认值(cpu 核数, 最少 2)
+     */
+    private int ioThreadPoolSize = 0;
+
+    /**
+     * 回调与事件处理线程数; 0 时使用 lettuce 默认值(cpu 核数, 最少 2)
+     */
+    private int computationThreadPoolSize = 0;
+
+    /**
+     * lettuce.command.completion / lettuce.command.firstresponse 是否输出直方图, 用于计算 p99
+     */
+    private boolean latencyHistogram = true;
+}
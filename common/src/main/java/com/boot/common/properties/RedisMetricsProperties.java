@@ -0,0 +1,43 @@
+package com.boot.common.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * redisTemplate 命令耗时统计配置
+ * <p>
+ * redis.command* 每个指标最多 命令数 × (maxPrefixes + 1) 个 command/prefix 组合, 如 30 个命令、默认 50 个前缀时约 1500 个;
+ * 开启 histogram 后 redis.command 的每个组合再乘以 bucket 数(约 70), 只建议在前缀较少时开启
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.redis.metrics")
+public class RedisMetricsProperties {
+
+    /**
+     * 是否按命令与 key 前缀统计
+     */
+    private boolean enabled = true;
+
+    /**
+     * key 前缀取去掉全局前缀后的前几段(以 : 分隔), 如 1 时 user:1:profile 统计为 user
+     */
+    private int prefixDepth = 1;
+
+    /**
+     * 单独统计的前缀数量, 超过后新前缀计入 other
+     */
+    private int maxPrefixes = 50;
+
+    /**
+     * redis.command 是否发布 histogram, 供监控系统计算分位数
+     */
+    private boolean histogram = false;
+
+    /**
+     * 超过该耗时的单条命令输出 warn 日志, 为空时不输出
+     */
+    private Duration slowCommandThreshold;
+}
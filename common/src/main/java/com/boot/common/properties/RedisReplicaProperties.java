@@ -0,0 +1,31 @@
+package com.boot.common.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * redis 读写分离配置
+ * <p>
+ * 集群使用 spring.redis.cluster.nodes, 哨兵使用 spring.redis.sentinel; 没有哨兵的主从部署通过 nodes 声明从节点
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.redis.replica")
+public class RedisReplicaProperties {
+
+    /**
+     * RedisHelper / AsyncRedisHelper 普通读命令的路由策略, 如 REPLICA_PREFERRED、REPLICA、NEAREST、ANY, 为空时全部走主节点
+     * <p>
+     * 锁、@Cacheable 缓存、布隆过滤器与限流不受影响, 始终走主节点; 单机模式下从主节点的 INFO REPLICATION 发现从节点.
+     * 从节点异步复制, 刚写入的数据可能读不到
+     */
+    private String readFrom;
+
+    /**
+     * 静态主从: 从节点列表 host:port, 逗号分隔; 主节点取 spring.redis.host/port, 认证与库号与主节点一致
+     */
+    private List<String> nodes = new ArrayList<>();
+}
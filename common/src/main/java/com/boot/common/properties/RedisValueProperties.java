@@ -0,0 +1,32 @@
+package com.boot.common.properties;
+
+import com.boot.common.cache.SerializerType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * redis 值序列化配置, 作用于 redisTemplate 与未单独配置序列化方式的缓存
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.redis.value")
+public class RedisValueProperties {
+
+    /**
+     * 序列化方式; smile/cbor 可以读取 json 格式的旧数据, 切换后无需清空 redis
+     */
+    private SerializerType serializer = SerializerType.JSON;
+
+    /**
+     * smile/cbor: 序列化结果超过该字节数时使用 lz4 压缩, 小于等于 0 不压缩
+     */
+    private int compressionThreshold = 2048;
+
+    /**
+     * smile/cbor: 类型别名 -> 类名, 写入别名代替完整类名; 已写入的别名不能修改
+     */
+    private Map<String, String> typeAliases = new LinkedHashMap<>();
+}
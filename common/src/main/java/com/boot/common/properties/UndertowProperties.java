@@ -0,0 +1,18 @@
+package com.boot.common.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * undertow 请求处理线程配置, worker 线程数、io 线程与 buffer 仍使用 server.undertow.*
+ * @author Yarns
+ */
+@Data
+@ConfigurationProperties(prefix = "framework.undertow")
+public class UndertowProperties {
+
+    /**
+     * servlet 请求是否在虚拟线程上处理, 需要 JDK 21 及以上, 不支持时使用 worker 线程池
+     */
+    private boolean virtualThreads = false;
+}
@@ -0,0 +1,28 @@
+package com.boot.common.ratelimit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 超出 {@link com.boot.common.annotation.RateLimit} 限制, 响应 429
+ * @author Yarns
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String key;
+
+    public RateLimitException(String message, String key) {
+        super(message);
+        this.key = key;
+    }
+
+    /**
+     * @return 被限流的桶
+     */
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,137 @@
+package com.boot.common.ratelimit;
+
+import com.boot.common.helper.RedisHelper;
+import com.boot.common.properties.RateLimitProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 redis 的分布式令牌桶
+ * <p>
+ * 桶保存为 hash(tokens, ts), 补充与扣减在 lua 脚本中原子完成, 时间取 redis 服务器时间, 不受节点时钟偏差影响.
+ * 共享桶(按接口限流)一次可以申请多个令牌, 多出的令牌在本节点预取使用, 有效期很短, 过期丢弃;
+ * 预取数量不超过有效期内补充的令牌数, 丢弃的令牌不会明显降低实际限额
+ * @author Yarns
+ */
+@Slf4j
+public class RedisRateLimiter {
+
+    /**
+     * ARGV: 容量, 每毫秒补充的令牌数, 申请数; 返回实际得到的令牌数
+     */
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>(
+            "pcall(redis.replicate_commands); " +
+            "local capacity = tonumber(ARGV[1]); " +
+            "local rate = tonumber(ARGV[2]); " +
+            "local requested = tonumber(ARGV[3]); " +
+            "local time = redis.call('time'); " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000); " +
+            "local bucket = redis.call('hmget', KEYS[1], 'tokens', 'ts'); " +
+            "local tokens = tonumber(bucket[1]); " +
+            "local ts = tonumber(bucket[2]); " +
+            "if tokens == nil or ts == nil then " +
+            "    tokens = capacity; " +
+            "    ts = now; " +
+            "end; " +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate); " +
+            "local granted = math.min(requested, math.floor(tokens)); " +
+            "tokens = tokens - granted; " +
+            "redis.call('hmset', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)); " +
+            "redis.call('pexpire', KEYS[1], math.ceil(capacity / rate) + 1000); " +
+            "return granted;", Long.class);
+
+    private static final RedisSerializer<Long> RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RateLimitProperties properties;
+
+    private final long prefetchTtl;
+
+    private final Cache<String, LocalPermits> localPermits;
+
+    public RedisRateLimiter(RedisTemplate<String, Object> redisTemplate, RateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.prefetchTtl = properties.getPrefetchTtl().toNanos();
+        this.localPermits = CacheBuilder.newBuilder()
+                .maximumSize(100000)
+                .expireAfterAccess(Math.max(properties.getPrefetchTtl().toMillis() * 10, 1000), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 获取一个令牌
+     *
+     * @param key          桶的 key, 不含全局前缀
+     * @param permits      每个周期补充的令牌数
+     * @param periodMillis 周期(毫秒)
+     * @param burst        桶容量
+     * @param prefetch     是否预取; 按 ip/用户区分的桶请求稀疏, 预取的令牌大多过期丢弃, 不应预取
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(String key, long permits, long periodMillis, long burst, boolean prefetch) {
+        long batch = prefetch ? batchSize(permits, periodMillis, burst) : 1;
+        LocalPermits local = batch > 1 ? localPermits.asMap().computeIfAbsent(key, k -> new LocalPermits()) : null;
+        long now = System.nanoTime();
+        if (local != null && local.tryTake(now)) {
+            return true;
+        }
+        Long granted;
+        try {
+            granted = redisTemplate.execute(TOKEN_BUCKET_SCRIPT, RedisSerializer.string(), RESULT_SERIALIZER,
+                    Collections.singletonList(RedisHelper.getRedisPrefix() + key), String.valueOf(burst),
+                    String.valueOf((double) permits / periodMillis), String.valueOf(batch));
+        } catch (Exception e) {
+            log.warn("限流检查失败: {}", key, e);
+            return properties.isFailOpen();
+        }
+        if (granted == null || granted <= 0) {
+            return false;
+        }
+        if (granted > 1 && local != null) {
+            local.add(granted - 1, now + prefetchTtl);
+        }
+        return true;
+    }
+
+    private long batchSize(long permits, long periodMillis, long burst) {
+        long batch = (long) (burst * properties.getPrefetchRatio());
+        // 预取的令牌过期即丢弃, 最多取有效期内补充的数量
+        long refill = (long) ((double) permits * properties.getPrefetchTtl().toMillis() / periodMillis);
+        return Math.max(1, Math.min(Math.min(batch, refill), properties.getMaxPrefetch()));
+    }
+
+    /**
+     * 本节点预取的令牌
+     */
+    private static final class LocalPermits {
+
+        private long available;
+
+        private long expiresAt;
+
+        synchronized boolean tryTake(long now) {
+            if (available > 0 && now - expiresAt < 0) {
+                available--;
+                return true;
+            }
+            available = 0;
+            return false;
+        }
+
+        synchronized void add(long permits, long expiresAt) {
+            this.available += permits;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
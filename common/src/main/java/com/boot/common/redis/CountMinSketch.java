@@ -0,0 +1,60 @@
+package com.boot.common.redis;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * count-min sketch, 固定内存估算每个 key 的计数, 只会高估不会低估; 线程安全
+ * @author Yarns
+ */
+public class CountMinSketch {
+
+    private final int depth;
+
+    private final int width;
+
+    private final AtomicLongArray counters;
+
+    /**
+     * @param depth 哈希函数个数, 越大高估的概率越小
+     * @param width 每行计数器个数, 越大高估的幅度越小
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * 增加计数
+     *
+     * @param key   键
+     * @param count 增量
+     * @return 增加后的估算值
+     */
+    public long add(String key, long count) {
+        byte[] hash = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asBytes();
+        ByteBuffer buffer = ByteBuffer.wrap(hash).order(ByteOrder.LITTLE_ENDIAN);
+        long hash1 = buffer.getLong();
+        long hash2 = buffer.getLong();
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int index = i * width + (int) (((hash1 + i * hash2) & Long.MAX_VALUE) % width);
+            min = Math.min(min, counters.addAndGet(index, count));
+        }
+        return min;
+    }
+
+    /**
+     * 清零, 开始新的统计窗口
+     */
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.boot.common.redis;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 热点 key 探测, 用于 RedisHelper.get/hget
+ * <p>
+ * 每 sampleRate 次读取抽样 1 次计入 count-min sketch, 一个窗口内估算读取次数超过 threshold 的 key 成为热点,
+ * 之后读到的值在本地缓存 localTtl, 期间不再访问 redis; 连续一个窗口不再超过阈值后降级
+ * <p>
+ * 本节点通过 RedisHelper 写入或删除后清除本地值, 其他节点的修改最多延迟 localTtl 可见;
+ * 读取前取 {@link #stamp()}, 读取期间发生过清除时不回填, 避免并发读到的旧值在写入后又被缓存
+ * @author Yarns
+ */
+public class HotKeyDetector {
+
+    private final int sampleRate;
+
+    private final long threshold;
+
+    private final long windowNanos;
+
+    private final CountMinSketch sketch;
+
+    private final ReentrantLock rolloverLock = new ReentrantLock();
+
+    private volatile long windowStart = System.nanoTime();
+
+    private volatile long window;
+
+    private final Map<String, HotKey> hotKeys = new ConcurrentHashMap<>();
+
+    private final int maxHotKeys;
+
+    /**
+     * 热点 string 的值
+     */
+    private final Cache<String, Object> values;
+
+    /**
+     * 热点 hash 项的值, 按 key 分组, 删除 key 时一起清除
+     */
+    private final Cache<String, Map<Object, Object>> hashes;
+
+    /**
+     * 清除次数, 读取期间变化说明可能读到了写入前的值
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public HotKeyDetector(int sampleRate, long threshold, Duration window, Duration localTtl, int maxHotKeys,
+                          int sketchDepth, int sketchWidth) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.threshold = threshold;
+        this.windowNanos = window.toNanos();
+        this.maxHotKeys = maxHotKeys;
+        this.sketch = new CountMinSketch(sketchDepth, sketchWidth);
+        this.values = CacheBuilder.newBuilder()
+                .maximumSize(maxHotKeys)
+                .expireAfterWrite(localTtl.toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+        this.hashes = CacheBuilder.newBuilder()
+                .maximumSize(maxHotKeys)
+                .expireAfterWrite(localTtl.toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    /**
+     * @param key 键, 不含全局前缀
+     * @return 本地缓存的值, 不是热点或已过期时为 null
+     */
+    public Object get(String key) {
+        Object value = values.getIfPresent(key);
+        if (value != null) {
+            // 本地命中同样计数, 否则热点会因为不再访问 redis 而降级
+            sample(key);
+            hit(key);
+        }
+        return value;
+    }
+
+    /**
+     * @param key  键
+     * @param item 项
+     * @return 本地缓存的值, 不是热点或已过期时为 null
+     */
+    public Object hget(String key, Object item) {
+        Map<Object, Object> items = hashes.getIfPresent(key);
+        Object value = items == null ? null : items.get(item);
+        if (value != null) {
+            String id = hashId(key, item);
+            sample(id);
+            hit(id);
+        }
+        return value;
+    }
+
+    /**
+     * @return 从 redis 读取前调用, 传给 {@link #onGet} / {@link #onHget}
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * 从 redis 读取后调用, 抽样计数, 热点的值放入本地缓存
+     *
+     * @param key   键
+     * @param value 读到的值, null 不缓存
+     * @param stamp 读取前的 {@link #stamp()}
+     */
+    public void onGet(String key, Object value, long stamp) {
+        if (sample(key) && value != null && invalidations.get() == stamp) {
+            values.put(key, value);
+        }
+    }
+
+    /**
+     * @param key   键
+     * @param item  项
+     * @param value 读到的值, null 不缓存
+     * @param stamp 读取前的 {@link #stamp()}
+     */
+    public void onHget(String key, Object item, Object value, long stamp) {
+        if (sample(hashId(key, item)) && value != null && invalidations.get() == stamp) {
+            hashes.asMap().computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(item, value);
+        }
+    }
+
+    /**
+     * 清除 key 的本地值, 包括 hash 的全部项
+     *
+     * @param key 键
+     */
+    public void invalidate(String key) {
+        invalidations.incrementAndGet();
+        values.invalidate(key);
+        hashes.invalidate(key);
+    }
+
+    /**
+     * @param key  键
+     * @param item 项
+     */
+    public void invalidate(String key, Object item) {
+        invalidations.incrementAndGet();
+        Map<Object, Object> items = hashes.getIfPresent(key);
+        if (items != null) {
+            items.remove(item);
+        }
+    }
+
+    /**
+     * @return 当前热点, 按估算读取次数倒序
+     */
+    public List<Map<String, Object>> hotKeys() {
+        List<Map.Entry<String, HotKey>> entries = new ArrayList<>(hotKeys.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, HotKey> e) -> e.getValue().estimate).reversed());
+        List<Map<String, Object>> result = new ArrayList<>(entries.size());
+        for (Map.Entry<String, HotKey> entry : entries) {
+            HotKey hotKey = entry.getValue();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("key", entry.getKey());
+            map.put("estimate", hotKey.estimate);
+            map.put("localHits", hotKey.localHits.sum());
+            map.put("since", hotKey.since);
+            result.add(map);
+        }
+        return result;
+    }
+
+    /**
+     * @return 是否为热点
+     */
+    private boolean sample(String id) {
+        rollover();
+        HotKey hotKey = hotKeys.get(id);
+        if (ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            long estimate = sketch.add(id, sampleRate);
+            if (estimate >= threshold) {
+                if (hotKey == null && hotKeys.size() < maxHotKeys) {
+                    hotKey = hotKeys.computeIfAbsent(id, k -> new HotKey());
+                }
+                if (hotKey != null) {
+                    hotKey.estimate = estimate;
+                    hotKey.window = window;
+                }
+            }
+        }
+        return hotKey != null;
+    }
+
+    private void hit(String id) {
+        HotKey hotKey = hotKeys.get(id);
+        if (hotKey != null) {
+            hotKey.localHits.increment();
+        }
+    }
+
+    /**
+     * 窗口结束时清零计数, 上个窗口没有达到阈值的热点降级
+     */
+    private void rollover() {
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos || !rolloverLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - windowStart < windowNanos) {
+                return;
+            }
+            long previous = window;
+            hotKeys.entrySet().removeIf(entry -> entry.getValue().window < previous);
+            sketch.clear();
+            window = previous + 1;
+            windowStart = now;
+        } finally {
+            rolloverLock.unlock();
+        }
+    }
+
+    private static String hashId(String key, Object item) {
+        return key + '#' + item;
+    }
+
+    private static final class HotKey {
+
+        final long since = System.currentTimeMillis();
+
+        final LongAdder localHits = new LongAdder();
+
+        volatile long estimate;
+
+        volatile long window;
+    }
+}
@@ -0,0 +1,31 @@
+package com.boot.common.redis;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 当前热点 key, GET /actuator/hotkeys
+ * <p>
+ * 输出 key 名称, 默认不在 web 上开放; 需要时配置 management.server.port/address 绑定本机端口后再加入 exposure.include
+ * @author Yarns
+ */
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final HotKeyDetector hotKeyDetector;
+
+    public HotKeysEndpoint(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    /**
+     * @return 热点 key, 包含估算的窗口内读取次数、本地命中次数与成为热点的时间
+     */
+    @ReadOperation
+    public List<Map<String, Object>> hotKeys() {
+        return hotKeyDetector.hotKeys();
+    }
+}
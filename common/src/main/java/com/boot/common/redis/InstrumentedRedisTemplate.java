@@ -0,0 +1,22 @@
+package com.boot.common.redis;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 记录命令耗时的 RedisTemplate, 见 {@link RedisCommandMetrics}
+ * @author Yarns
+ */
+public class InstrumentedRedisTemplate<K, V> extends RedisTemplate<K, V> {
+
+    private final RedisCommandMetrics metrics;
+
+    public InstrumentedRedisTemplate(RedisCommandMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected RedisConnection preProcessConnection(RedisConnection connection, boolean existingConnection) {
+        return metrics.instrument(super.preProcessConnection(connection, existingConnection));
+    }
+}
@@ -0,0 +1,74 @@
+package com.boot.common.redis;
+
+import io.lettuce.core.event.connection.ConnectionActivatedEvent;
+import io.lettuce.core.event.connection.ConnectionDeactivatedEvent;
+import io.lettuce.core.event.connection.ReconnectFailedEvent;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.Disposable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * lettuce 连接指标, 订阅 ClientResources 的事件总线
+ * <ul>
+ *     <li>redis.connections.active: 当前已激活的连接数, 共享连接模式下应保持个位数</li>
+ *     <li>redis.connections.events: type=activated/deactivated/reconnect-failed 的累计次数</li>
+ * </ul>
+ * 命令耗时由 spring boot 输出为 lettuce.command.completion / lettuce.command.firstresponse
+ * @author Yarns
+ */
+public class LettuceConnectionMetrics implements MeterBinder, DisposableBean {
+
+    private final ClientResources clientResources;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private volatile Disposable subscription;
+
+    public LettuceConnectionMetrics(ClientResources clientResources) {
+        this.clientResources = clientResources;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("redis.connections.active", active, AtomicInteger::get)
+                .description("Number of active redis connections")
+                .register(registry);
+        Counter activated = counter(registry, "activated");
+        Counter deactivated = counter(registry, "deactivated");
+        Counter reconnectFailed = counter(registry, "reconnect-failed");
+        destroy();
+        subscription = clientResources.eventBus().get().subscribe(event -> {
+            if (event instanceof ConnectionActivatedEvent) {
+                active.incrementAndGet();
+                activated.increment();
+            } else if (event instanceof ConnectionDeactivatedEvent) {
+                active.decrementAndGet();
+                deactivated.increment();
+            } else if (event instanceof ReconnectFailedEvent) {
+                reconnectFailed.increment();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+            subscription = null;
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String type) {
+        return Counter.builder("redis.connections.events")
+                .tag("type", type)
+                .description("Redis connection lifecycle events")
+                .register(registry);
+    }
+}
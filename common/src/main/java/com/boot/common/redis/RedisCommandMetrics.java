@@ -0,0 +1,348 @@
+package com.boot.common.redis;
+
+import com.boot.common.helper.RedisHelper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * redisTemplate 命令耗时统计, 通过 /actuator/metrics 查看
+ * <ul>
+ *     <li>redis.command: 耗时, command 为连接上的方法名(get/hGet/...), prefix 为 key 前缀</li>
+ *     <li>redis.command.errors: 失败次数</li>
+ *     <li>redis.command.payload: 参数与返回值的字节数</li>
+ * </ul>
+ * 每个指标最多 命令数 × (maxPrefixes + 1) 个 command/prefix 组合; 开启 histogram 时耗时另按 bucket 输出,
+ * 只发布 histogram, 分位数由监控系统计算, 不在客户端计算.
+ * 按前缀汇总的耗时通过 /actuator/rediscommands 查看; pipeline 与事务中的命令不统计
+ * @author Yarns
+ */
+@Slf4j
+public class RedisCommandMetrics {
+
+    static final String OTHER = "other";
+
+    /**
+     * 按连接类与命令接口类缓存代理类的构造器; 每次执行命令都会包装连接, 不能每次查找接口并生成代理类
+     */
+    private static final ClassValue<Constructor<?>> PROXY_CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> type) {
+            Object sample = Proxy.newProxyInstance(type.getClassLoader(), ClassUtils.getAllInterfacesForClass(type),
+                    (proxy, method, args) -> null);
+            try {
+                return sample.getClass().getConstructor(InvocationHandler.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("无法创建代理: " + type.getName(), e);
+            }
+        }
+    };
+
+    private final MeterRegistry registry;
+
+    private final int prefixDepth;
+
+    private final int maxPrefixes;
+
+    private final long slowThresholdNanos;
+
+    private final boolean histogram;
+
+    private final Set<String> prefixes = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    private final Map<String, PrefixStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry      指标注册表
+     * @param prefixDepth   key 前缀取前几段
+     * @param maxPrefixes   单独统计的前缀数量
+     * @param slowThreshold 慢命令阈值, 为空时不输出
+     * @param histogram     耗时是否发布 histogram
+     */
+    public RedisCommandMetrics(MeterRegistry registry, int prefixDepth, int maxPrefixes, Duration slowThreshold,
+                               boolean histogram) {
+        this.registry = registry;
+        this.prefixDepth = Math.max(1, prefixDepth);
+        this.maxPrefixes = maxPrefixes;
+        this.slowThresholdNanos = slowThreshold == null ? 0 : slowThreshold.toNanos();
+        this.histogram = histogram;
+    }
+
+    /**
+     * 包装连接, 带 key 的命令记录耗时
+     *
+     * @param connection 连接
+     * @return 代理连接
+     */
+    public RedisConnection instrument(RedisConnection connection) {
+        return (RedisConnection) proxy(connection, connection);
+    }
+
+    /**
+     * 按总耗时倒序的前缀统计
+     *
+     * @param limit 返回数量
+     * @return 前缀统计
+     */
+    public List<Map<String, Object>> slowest(int limit) {
+        List<Map.Entry<String, PrefixStats>> entries = new ArrayList<>(stats.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, PrefixStats> e) -> e.getValue().totalNanos.sum()).reversed());
+        List<Map<String, Object>> result = new ArrayList<>(Math.min(limit, entries.size()));
+        for (Map.Entry<String, PrefixStats> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            result.add(entry.getValue().toMap(entry.getKey()));
+        }
+        return result;
+    }
+
+    void record(String command, String key, long nanos, long bytes, boolean error) {
+        String prefix = prefix(key);
+        Meters m = meters(command, prefix);
+        m.timer.record(nanos, TimeUnit.NANOSECONDS);
+        m.payload.record(bytes);
+        if (error) {
+            m.errors.increment();
+        }
+        PrefixStats s = stats.get(prefix);
+        if (s == null) {
+            s = stats.computeIfAbsent(prefix, p -> new PrefixStats());
+        }
+        s.record(nanos, bytes, error);
+        if (slowThresholdNanos > 0 && nanos >= slowThresholdNanos) {
+            log.warn("redis慢命令: {} {} 耗时{}ms 字节数{}", command, key, TimeUnit.NANOSECONDS.toMillis(nanos), bytes);
+        }
+    }
+
+    private Object proxy(Object target, RedisConnection connection) {
+        try {
+            return PROXY_CONSTRUCTORS.get(target.getClass()).newInstance(new CommandHandler(target, connection));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建代理: " + target.getClass().getName(), e);
+        }
+    }
+
+    private String prefix(String key) {
+        if (key == null) {
+            return OTHER;
+        }
+        String redisPrefix = RedisHelper.getRedisPrefix();
+        int start = !redisPrefix.isEmpty() && key.startsWith(redisPrefix) ? redisPrefix.length() : 0;
+        int end = start - 1;
+        for (int depth = 0; depth < prefixDepth; depth++) {
+            int index = key.indexOf(':', end + 1);
+            if (index < 0) {
+                end = key.length();
+                break;
+            }
+            end = index;
+        }
+        return tag(key.substring(start, end));
+    }
+
+    private String tag(String prefix) {
+        if (prefixes.contains(prefix)) {
+            return prefix;
+        }
+        if (prefixes.size() < maxPrefixes && prefixes.add(prefix)) {
+            return prefix;
+        }
+        return prefixes.contains(prefix) ? prefix : OTHER;
+    }
+
+    private Meters meters(String command, String prefix) {
+        String name = command + ' ' + prefix;
+        Meters m = meters.get(name);
+        return m != null ? m : meters.computeIfAbsent(name, n -> new Meters(command, prefix));
+    }
+
+    private static long size(Object value) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof byte[][]) {
+            long size = 0;
+            for (byte[] bytes : (byte[][]) value) {
+                size += bytes == null ? 0 : bytes.length;
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            long size = 0;
+            for (Object element : (Collection<?>) value) {
+                size += size(element);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            long size = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += size(entry.getKey()) + size(entry.getValue());
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    /**
+     * 命令的第一个 key; eval 取 keysAndArgs 的第一个
+     */
+    private static byte[] key(Method method, Object[] args) {
+        if (args == null || args.length == 0) {
+            return null;
+        }
+        if (method.getName().startsWith("eval")) {
+            return args.length == 4 && args[2] instanceof Integer && (Integer) args[2] > 0
+                    && args[3] instanceof byte[][] && ((byte[][]) args[3]).length > 0 ? ((byte[][]) args[3])[0] : null;
+        }
+        if (args[0] instanceof byte[]) {
+            return (byte[]) args[0];
+        }
+        if (args[0] instanceof byte[][] && ((byte[][]) args[0]).length > 0) {
+            return ((byte[][]) args[0])[0];
+        }
+        return null;
+    }
+
+    private final class CommandHandler implements InvocationHandler {
+
+        private final Object target;
+
+        private final RedisConnection connection;
+
+        CommandHandler(Object target, RedisConnection connection) {
+            this.target = target;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            byte[] key = key(method, args);
+            if (key == null || connection.isPipelined() || connection.isQueueing()) {
+                Object result = invokeTarget(method, args);
+                // connection.stringCommands() 等返回的命令接口同样统计
+                if (result != null && method.getParameterCount() == 0 && method.getReturnType().isInterface()
+                        && method.getName().endsWith("Commands")) {
+                    return proxy(result, connection);
+                }
+                return result;
+            }
+            long start = System.nanoTime();
+            Object result = null;
+            boolean error = true;
+            try {
+                result = invokeTarget(method, args);
+                error = false;
+                return result;
+            } finally {
+                long bytes = size(result);
+                for (Object arg : args) {
+                    bytes += size(arg);
+                }
+                record(method.getName(), new String(key, StandardCharsets.UTF_8), System.nanoTime() - start, bytes, error);
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    private final class Meters {
+
+        final Timer timer;
+
+        final Counter errors;
+
+        final DistributionSummary payload;
+
+        Meters(String command, String prefix) {
+            this.timer = Timer.builder("redis.command")
+                    .description("redis命令耗时")
+                    .tag("command", command)
+                    .tag("prefix", prefix)
+                    .publishPercentileHistogram(histogram)
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(registry);
+            this.errors = Counter.builder("redis.command.errors")
+                    .description("redis命令失败次数")
+                    .tag("command", command)
+                    .tag("prefix", prefix)
+                    .register(registry);
+            this.payload = DistributionSummary.builder("redis.command.payload")
+                    .description("redis命令参数与返回值字节数")
+                    .baseUnit("bytes")
+                    .tag("command", command)
+                    .tag("prefix", prefix)
+                    .register(registry);
+        }
+    }
+
+    private static final class PrefixStats {
+
+        final LongAdder count = new LongAdder();
+
+        final LongAdder errors = new LongAdder();
+
+        final LongAdder totalNanos = new LongAdder();
+
+        final LongAdder bytes = new LongAdder();
+
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, long size, boolean error) {
+            count.increment();
+            totalNanos.add(nanos);
+            bytes.add(size);
+            if (error) {
+                errors.increment();
+            }
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        Map<String, Object> toMap(String prefix) {
+            long n = count.sum();
+            long total = totalNanos.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("prefix", prefix);
+            map.put("count", n);
+            map.put("totalMs", TimeUnit.NANOSECONDS.toMillis(total));
+            map.put("meanMs", n == 0 ? 0D : total / (double) n / 1_000_000D);
+            map.put("maxMs", maxNanos.get() / 1_000_000D);
+            map.put("errors", errors.sum());
+            map.put("bytes", bytes.sum());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.boot.common.redis;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按 key 前缀汇总的 redis 命令耗时, GET /actuator/rediscommands?limit=20
+ * <p>
+ * 输出 key 前缀与慢命令统计, 默认不在 web 上开放; 需要时配置 management.server.port/address 绑定本机端口后再加入 exposure.include
+ * @author Yarns
+ */
+@Endpoint(id = "rediscommands")
+public class RedisCommandsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final RedisCommandMetrics metrics;
+
+    public RedisCommandsEndpoint(RedisCommandMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param limit 返回数量, 默认 20
+     * @return 按总耗时倒序的前缀, 包含次数、总耗时、平均耗时、最大耗时、失败次数与字节数
+     */
+    @ReadOperation
+    public List<Map<String, Object>> slowest(@Nullable Integer limit) {
+        return metrics.slowest(limit == null || limit <= 0 ? DEFAULT_LIMIT : limit);
+    }
+}
@@ -0,0 +1,108 @@
+package com.boot.common.redis;
+
+import io.lettuce.core.ReadFrom;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 只读命令走从节点的独立连接
+ * <p>
+ * 与主连接工厂使用相同的节点与客户端配置, 只多设置 ReadFrom; 只供 RedisHelper / AsyncRedisHelper 的普通读方法使用,
+ * 锁、缓存、布隆过滤器与限流始终读写主节点, 不受复制延迟影响.
+ * 连接工厂不注册为 bean, 避免与主连接工厂、redisTemplate 按类型注入时冲突
+ * @author Yarns
+ */
+public class RedisReplicaReads implements InitializingBean, DisposableBean {
+
+    private final ReadFrom readFrom;
+
+    private final LettuceConnectionFactory connectionFactory;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * @param primary         主连接工厂
+     * @param masterReplica   静态主从节点, 未配置时为 null
+     * @param readFrom        只读命令的路由策略
+     * @param primaryTemplate 主 redisTemplate, 复用其序列化方式
+     * @param commandMetrics  命令耗时统计, 关闭时为 null
+     */
+    public RedisReplicaReads(LettuceConnectionFactory primary, RedisStaticMasterReplicaConfiguration masterReplica,
+                             ReadFrom readFrom, RedisTemplate<String, Object> primaryTemplate,
+                             RedisCommandMetrics commandMetrics) {
+        this.readFrom = readFrom;
+        this.connectionFactory = new LettuceConnectionFactory(configuration(primary, masterReplica),
+                clientConfiguration(primary.getClientConfiguration(), readFrom));
+        this.redisTemplate = commandMetrics == null ? new RedisTemplate<>() : new InstrumentedRedisTemplate<>(commandMetrics);
+        this.redisTemplate.setConnectionFactory(connectionFactory);
+        this.redisTemplate.setKeySerializer(primaryTemplate.getKeySerializer());
+        this.redisTemplate.setHashKeySerializer(primaryTemplate.getHashKeySerializer());
+        this.redisTemplate.setValueSerializer(primaryTemplate.getValueSerializer());
+        this.redisTemplate.setHashValueSerializer(primaryTemplate.getHashValueSerializer());
+    }
+
+    public ReadFrom getReadFrom() {
+        return readFrom;
+    }
+
+    /**
+     * @return 只读命令按 ReadFrom 路由的 redisTemplate, 写命令仍会发到主节点, 但不应使用
+     */
+    public RedisTemplate<String, Object> getRedisTemplate() {
+        return redisTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        connectionFactory.afterPropertiesSet();
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @Override
+    public void destroy() {
+        connectionFactory.destroy();
+    }
+
+    /**
+     * 单机模式下 lettuce 通过 INFO REPLICATION 自动发现从节点
+     */
+    private static RedisConfiguration configuration(LettuceConnectionFactory primary,
+                                                    RedisStaticMasterReplicaConfiguration masterReplica) {
+        if (masterReplica != null) {
+            return masterReplica;
+        }
+        if (primary.isClusterAware()) {
+            return primary.getClusterConfiguration();
+        }
+        if (primary.isRedisSentinelAware()) {
+            return primary.getSentinelConfiguration();
+        }
+        return primary.getStandaloneConfiguration();
+    }
+
+    private static LettuceClientConfiguration clientConfiguration(LettuceClientConfiguration primary, ReadFrom readFrom) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder()
+                .commandTimeout(primary.getCommandTimeout())
+                .shutdownTimeout(primary.getShutdownTimeout())
+                .shutdownQuietPeriod(primary.getShutdownQuietPeriod())
+                .readFrom(readFrom);
+        primary.getClientResources().ifPresent(builder::clientResources);
+        primary.getClientOptions().ifPresent(builder::clientOptions);
+        primary.getClientName().ifPresent(builder::clientName);
+        if (primary.isUseSsl()) {
+            LettuceClientConfiguration.LettuceSslClientConfigurationBuilder ssl = builder.useSsl();
+            if (!primary.isVerifyPeer()) {
+                ssl.disablePeerVerification();
+            }
+            if (primary.isStartTls()) {
+                ssl.startTls();
+            }
+        }
+        return builder.build();
+    }
+}
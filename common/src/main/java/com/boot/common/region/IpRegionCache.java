@@ -0,0 +1,169 @@
+package com.boot.common.region;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ip 地区缓存, 以 int 形式的 ipv4 为键, 避免装箱与字符串键
+ * <p>
+ * 4 路组相联的定长数组: 读取无锁, 写入时优先占用空位/过期项, 否则淘汰组内最早写入的一项;
+ * 条目不可变, 并发读写只会造成少量重复检索, 不会读到不完整的数据.
+ * 条目带有写入时的代数, {@link #clear()} 递增代数, 旧代数的条目不再命中, 清空期间并发写入的旧结果也不会被读到
+ * @author Yarns
+ */
+public final class IpRegionCache {
+
+    private static final int WAYS = 4;
+
+    private final Entry[] table;
+
+    private final int setMask;
+
+    private final long ttlNanos;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize      最大条目数, 向上取整为 4 的 2 次幂倍
+     * @param expireAfterWrite 写入后过期时间, 为 0 时不过期
+     */
+    public IpRegionCache(int maximumSize, Duration expireAfterWrite) {
+        int sets = Integer.highestOneBit(Math.max(1, (maximumSize + WAYS - 1) / WAYS) * 2 - 1);
+        this.table = new Entry[sets * WAYS];
+        this.setMask = sets - 1;
+        this.ttlNanos = expireAfterWrite == null ? 0 : expireAfterWrite.toNanos();
+    }
+
+    /**
+     * @param ip ipv4
+     * @return 地区, 未命中返回 null
+     */
+    public String get(int ip) {
+        int base = indexOf(ip);
+        for (int i = base; i < base + WAYS; i++) {
+            Entry entry = table[i];
+            if (entry != null && entry.ip == ip) {
+                if (entry.generation != generation.get()) {
+                    break;
+                }
+                if (ttlNanos > 0 && System.nanoTime() - entry.expireAt > 0) {
+                    break;
+                }
+                hits.increment();
+                return entry.region;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * @return 当前代数, 检索前读取, 回填时传给 {@link #put(int, String, long)}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * @param ip         ipv4
+     * @param region     地区
+     * @param generation 检索开始前读取的代数, 已过期的代数写入后也不会命中
+     */
+    public void put(int ip, String region, long generation) {
+        long now = System.nanoTime();
+        long current = this.generation.get();
+        int base = indexOf(ip);
+        int victim = -1;
+        for (int i = base; i < base + WAYS; i++) {
+            Entry entry = table[i];
+            if (entry == null || entry.ip == ip || entry.generation != current
+                    || (ttlNanos > 0 && now - entry.expireAt > 0)) {
+                victim = i;
+                break;
+            }
+        }
+        if (victim < 0) {
+            // 组内已满, 淘汰最早写入的一项
+            victim = base;
+            for (int i = base + 1; i < base + WAYS; i++) {
+                Entry entry = table[i];
+                Entry oldest = table[victim];
+                if (entry != null && oldest != null && entry.createdAt - oldest.createdAt < 0) {
+                    victim = i;
+                }
+            }
+            evictions.increment();
+        }
+        table[victim] = new Entry(ip, region, generation, now, now + ttlNanos);
+        puts.increment();
+    }
+
+    /**
+     * 清空缓存, 先递增代数使现有条目立即失效
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        Arrays.fill(table, null);
+    }
+
+    /**
+     * @return 当前条目数(含已过期未清理的条目)
+     */
+    public long size() {
+        long size = 0;
+        for (Entry entry : table) {
+            if (entry != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public int capacity() {
+        return table.length;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private int indexOf(int ip) {
+        int h = ip * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & setMask) * WAYS;
+    }
+
+    private static final class Entry {
+        final int ip;
+        final String region;
+        final long generation;
+        final long createdAt;
+        final long expireAt;
+
+        Entry(int ip, String region, long generation, long createdAt, long expireAt) {
+            this.ip = ip;
+            this.region = region;
+            this.generation = generation;
+            this.createdAt = createdAt;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.boot.common.region;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * ip 地区缓存指标, 与 spring cache 指标同名: cache.gets / cache.puts / cache.evictions / cache.size
+ * @author Yarns
+ */
+public class IpRegionCacheMetrics extends CacheMeterBinder<IpRegionCache> {
+
+    public static final String CACHE_NAME = "ipRegion";
+
+    public IpRegionCacheMetrics(IpRegionCache cache) {
+        super(cache, CACHE_NAME, Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        IpRegionCache cache = getCache();
+        return cache == null ? null : cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        IpRegionCache cache = getCache();
+        return cache == null ? 0 : cache.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        IpRegionCache cache = getCache();
+        return cache == null ? null : cache.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        IpRegionCache cache = getCache();
+        return cache == null ? null : cache.evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        IpRegionCache cache = getCache();
+        return cache == null ? 0 : cache.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.capacity", getCache(), c -> c == null ? 0 : c.capacity())
+                .tags(getTagsWithCacheName())
+                .description("The maximum number of entries the cache can hold")
+                .register(registry);
+    }
+}
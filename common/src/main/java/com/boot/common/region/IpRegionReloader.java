@@ -0,0 +1,113 @@
+package com.boot.common.region;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 外部 ip2region 数据库热加载
+ * <p>
+ * 后台线程定期检查文件的修改时间与大小, 变化后读入并校验, 通过后原子替换 {@link IpRegionService} 中的数据库;
+ * 校验失败时继续使用当前数据库
+ * @author Yarns
+ */
+@Slf4j
+public class IpRegionReloader implements SmartLifecycle {
+
+    /**
+     * 校验用的样本地址, 任何完整的数据库都应能检索到
+     */
+    private static final String[] PROBE_IPS = {"1.0.0.0", "114.114.114.114", "223.255.255.255"};
+
+    private final IpRegionService service;
+    private final Path path;
+    private final Duration interval;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    private long lastModified = -1;
+    private long lastSize = -1;
+
+    public IpRegionReloader(IpRegionService service, String path, Duration interval) {
+        this.service = service;
+        this.path = Paths.get(path);
+        this.interval = interval;
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "IpRegion-Reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void checkQuietly() {
+        try {
+            check();
+        } catch (Exception e) {
+            log.warn("检查ip2region数据库失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 文件有变化时加载, 只在调度线程上调用
+     */
+    void check() throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        if (modified == lastModified && size == lastSize) {
+            return;
+        }
+        IpRegionSearcher loaded;
+        try {
+            loaded = validate(IpRegionSearcher.of(Files.readAllBytes(path)));
+        } catch (IllegalArgumentException e) {
+            log.warn("ip2region数据库校验失败, 继续使用当前版本: {}", e.getMessage());
+            lastModified = modified;
+            lastSize = size;
+            return;
+        }
+        service.swap(loaded);
+        lastModified = modified;
+        lastSize = size;
+        log.info("ip2region数据库已更新: {}, 大小: {}字节", path, loaded.size());
+    }
+
+    private IpRegionSearcher validate(IpRegionSearcher searcher) {
+        for (String ip : PROBE_IPS) {
+            if (searcher.search(IpRegionSearcher.parseIpv4(ip)) == null) {
+                throw new IllegalArgumentException("无法检索样本地址 " + ip);
+            }
+        }
+        return searcher;
+    }
+}
@@ -0,0 +1,131 @@
+package com.boot.common.region;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ip2region(v1 db格式)内存检索
+ * <p>
+ * 整个数据库加载为只读 byte[], 在索引区做二分查找; 实例不可变, 可在任意线程并发调用, 除返回的地区字符串外不产生分配
+ * <pre>
+ * 头部: firstIndexPtr(4字节) lastIndexPtr(4字节), 小端
+ * 索引块(12字节): startIp(4) endIp(4) dataPtr(4, 低24位为偏移, 高8位为长度)
+ * 数据块: cityId(4) region(utf-8)
+ * </pre>
+ * @author Yarns
+ */
+public final class IpRegionSearcher {
+
+    private static final int INDEX_BLOCK_LENGTH = 12;
+
+    private final byte[] data;
+
+    private final int firstIndexPtr;
+
+    private final int totalBlocks;
+
+    private IpRegionSearcher(byte[] data, int firstIndexPtr, int totalBlocks) {
+        this.data = data;
+        this.firstIndexPtr = firstIndexPtr;
+        this.totalBlocks = totalBlocks;
+    }
+
+    /**
+     * 校验数据并创建检索实例
+     *
+     * @param data 数据库内容
+     * @return IpRegionSearcher
+     * @throws IllegalArgumentException 数据格式不正确
+     */
+    public static IpRegionSearcher of(byte[] data) {
+        if (data == null || data.length < 8) {
+            throw new IllegalArgumentException("ip2region数据库为空");
+        }
+        long firstIndexPtr = readUnsignedInt(data, 0);
+        long lastIndexPtr = readUnsignedInt(data, 4);
+        if (firstIndexPtr < 8 || lastIndexPtr < firstIndexPtr
+                || lastIndexPtr + INDEX_BLOCK_LENGTH > data.length
+                || (lastIndexPtr - firstIndexPtr) % INDEX_BLOCK_LENGTH != 0) {
+            throw new IllegalArgumentException("ip2region数据库格式不正确");
+        }
+        int totalBlocks = (int) ((lastIndexPtr - firstIndexPtr) / INDEX_BLOCK_LENGTH) + 1;
+        return new IpRegionSearcher(data, (int) firstIndexPtr, totalBlocks);
+    }
+
+    /**
+     * 检索
+     *
+     * @param ip 无符号 ipv4, 见 {@link #parseIpv4(String)}
+     * @return 地区, 如 中国|0|浙江省|杭州市|电信; 未找到返回 null
+     */
+    public String search(long ip) {
+        int low = 0;
+        int high = totalBlocks - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int ptr = firstIndexPtr + mid * INDEX_BLOCK_LENGTH;
+            if (ip < readUnsignedInt(data, ptr)) {
+                high = mid - 1;
+            } else if (ip > readUnsignedInt(data, ptr + 4)) {
+                low = mid + 1;
+            } else {
+                long dataPtr = readUnsignedInt(data, ptr + 8);
+                int length = (int) ((dataPtr >> 24) & 0xFF);
+                int offset = (int) (dataPtr & 0x00FFFFFF);
+                if (length <= 4 || offset + length > data.length) {
+                    return null;
+                }
+                return new String(data, offset + 4, length - 4, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 数据库大小(字节)
+     */
+    public int size() {
+        return data.length;
+    }
+
+    /**
+     * 解析 ipv4 地址, 不产生分配
+     *
+     * @param ip 点分十进制地址
+     * @return 无符号 ipv4, 格式不正确返回 -1
+     */
+    public static long parseIpv4(String ip) {
+        if (ip == null) {
+            return -1;
+        }
+        int length = ip.length();
+        long result = 0;
+        int segment = -1;
+        int dots = 0;
+        for (int i = 0; i < length; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                segment = (segment < 0 ? 0 : segment * 10) + (c - '0');
+                if (segment > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && segment >= 0 && dots < 3) {
+                result = (result << 8) | segment;
+                segment = -1;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || segment < 0) {
+            return -1;
+        }
+        return (result << 8) | segment;
+    }
+
+    private static long readUnsignedInt(byte[] b, int offset) {
+        return ((b[offset] & 0xFFL))
+                | ((b[offset + 1] & 0xFFL) << 8)
+                | ((b[offset + 2] & 0xFFL) << 16)
+                | ((b[offset + 3] & 0xFFL) << 24);
+    }
+}
@@ -0,0 +1,116 @@
+package com.boot.common.region;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+/**
+ * ip 地区解析服务(单例)
+ * <p>
+ * 首次使用时将 classpath 下的 ip2region/ip2region.db 一次性读入内存, 之后的检索都在内存中完成, 线程安全;
+ * 检索结果缓存在 {@link IpRegionCache} 中; 可通过 {@link #swap(IpRegionSearcher)} 在运行时替换数据库
+ * @author Yarns
+ */
+@Slf4j
+public class IpRegionService {
+
+    public static final String DEFAULT_DB_LOCATION = "ip2region/ip2region.db";
+
+    private volatile IpRegionSearcher searcher;
+
+    private volatile IpRegionCache cache = new IpRegionCache(65536, Duration.ofHours(1));
+
+    private IpRegionService() {
+        this.searcher = loadClasspath();
+    }
+
+    public static IpRegionService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 解析 ip 所属地区
+     *
+     * @param ip ipv4 地址
+     * @return 地区, 无法解析时返回空串
+     */
+    public String search(String ip) {
+        IpRegionCache currentCache = cache;
+        // 先读缓存代数再读数据库: swap 先替换数据库再递增代数, 读到新代数时一定能读到新数据库
+        long generation = currentCache == null ? 0 : currentCache.generation();
+        IpRegionSearcher current = searcher;
+        if (current == null) {
+            return StringUtils.EMPTY;
+        }
+        long value = IpRegionSearcher.parseIpv4(ip);
+        if (value < 0) {
+            return StringUtils.EMPTY;
+        }
+        int key = (int) value;
+        if (currentCache != null) {
+            String cached = currentCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        String region = current.search(value);
+        if (region == null) {
+            region = StringUtils.EMPTY;
+        }
+        // 检索期间数据库被替换时, 代数已经递增, 回填的旧结果不会命中
+        if (currentCache != null) {
+            currentCache.put(key, region, generation);
+        }
+        return region;
+    }
+
+    /**
+     * 原子替换数据库, 正在进行的检索继续使用旧实例, 旧数据在没有引用后由 GC 回收;
+     * 替换后清空缓存, 缓存代数递增, 之后不会再命中旧库的结果
+     *
+     * @param newSearcher 已校验的新数据库
+     */
+    public void swap(IpRegionSearcher newSearcher) {
+        this.searcher = newSearcher;
+        IpRegionCache currentCache = cache;
+        if (currentCache != null) {
+            currentCache.clear();
+        }
+    }
+
+    public IpRegionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * 替换缓存
+     *
+     * @param cache 为 null 时关闭缓存
+     */
+    public void setCache(IpRegionCache cache) {
+        this.cache = cache;
+    }
+
+    private static IpRegionSearcher loadClasspath() {
+        try (InputStream in = IpRegionService.class.getClassLoader().getResourceAsStream(DEFAULT_DB_LOCATION)) {
+            if (in == null) {
+                log.warn("未找到ip2region数据库: {}", DEFAULT_DB_LOCATION);
+                return null;
+            }
+            IpRegionSearcher loaded = IpRegionSearcher.of(IOUtils.toByteArray(in));
+            log.info("ip2region数据库已加载, 大小: {}字节", loaded.size());
+            return loaded;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("加载ip2region数据库失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static class Holder {
+        private static final IpRegionService INSTANCE = new IpRegionService();
+    }
+}
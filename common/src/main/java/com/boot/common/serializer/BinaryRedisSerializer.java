@@ -0,0 +1,119 @@
+package com.boot.common.serializer;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 基于 jackson 二进制格式(smile/cbor)的值序列化, 类型信息使用 {@link TypeAliasRegistry} 中的别名
+ * <p>
+ * 写入格式为 1 字节标记 + 内容:
+ * <ul>
+ *     <li>{@link #PLAIN}: 未压缩</li>
+ *     <li>{@link #LZ4}: 4 字节原始长度 + lz4 压缩内容, 序列化结果不小于压缩阈值且压缩后更小时使用</li>
+ * </ul>
+ * 两个标记都不是合法的 json/utf-8 首字节, 其他数据交给 legacy 序列化读取, 用于兼容切换前写入的旧数据
+ * @author Yarns
+ */
+public class BinaryRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte PLAIN = (byte) 0xFE;
+
+    static final byte LZ4 = (byte) 0xFF;
+
+    private static final int LZ4_HEADER = 5;
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+    private final ObjectMapper mapper;
+
+    private final int compressionThreshold;
+
+    private final RedisSerializer<Object> legacy;
+
+    /**
+     * @param factory              smile 或 cbor 的 JsonFactory
+     * @param registry             类型别名
+     * @param compressionThreshold 压缩阈值(字节), 小于等于 0 不压缩
+     * @param legacy               旧数据的序列化, 可为 null
+     */
+    public BinaryRedisSerializer(JsonFactory factory, TypeAliasRegistry registry, int compressionThreshold,
+                                 RedisSerializer<Object> legacy) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        mapper.setDefaultTyping(new TypeAliasResolverBuilder(ObjectMapper.DefaultTyping.NON_FINAL,
+                mapper.getPolymorphicTypeValidator(), registry)
+                .init(JsonTypeInfo.Id.CLASS, null)
+                .inclusion(JsonTypeInfo.As.WRAPPER_ARRAY));
+        this.mapper = mapper;
+        this.compressionThreshold = compressionThreshold;
+        this.legacy = legacy;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY_ARRAY;
+        }
+        byte[] bytes;
+        try (ByteArrayBuilder builder = new ByteArrayBuilder()) {
+            builder.write(PLAIN);
+            mapper.writeValue(builder, value);
+            bytes = builder.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write value: " + e.getMessage(), e);
+        }
+        int length = bytes.length - 1;
+        if (compressionThreshold <= 0 || length < compressionThreshold) {
+            return bytes;
+        }
+        LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+        byte[] compressed = new byte[LZ4_HEADER + compressor.maxCompressedLength(length)];
+        int compressedLength = compressor.compress(bytes, 1, length, compressed, LZ4_HEADER);
+        if (compressedLength + LZ4_HEADER >= bytes.length) {
+            return bytes;
+        }
+        compressed[0] = LZ4;
+        compressed[1] = (byte) (length >>> 24);
+        compressed[2] = (byte) (length >>> 16);
+        compressed[3] = (byte) (length >>> 8);
+        compressed[4] = (byte) length;
+        return Arrays.copyOf(compressed, LZ4_HEADER + compressedLength);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (bytes[0] == PLAIN) {
+                return mapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+            }
+            if (bytes[0] == LZ4) {
+                int length = (bytes[1] & 0xFF) << 24 | (bytes[2] & 0xFF) << 16 | (bytes[3] & 0xFF) << 8 | (bytes[4] & 0xFF);
+                LZ4FastDecompressor decompressor = LZ4_FACTORY.fastDecompressor();
+                return mapper.readValue(decompressor.decompress(bytes, LZ4_HEADER, length), Object.class);
+            }
+        } catch (Exception e) {
+            throw new SerializationException("Could not read value: " + e.getMessage(), e);
+        }
+        if (legacy == null) {
+            throw new SerializationException("Unknown value format: " + (bytes[0] & 0xFF));
+        }
+        return legacy.deserialize(bytes);
+    }
+}
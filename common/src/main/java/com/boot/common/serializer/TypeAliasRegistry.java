@@ -0,0 +1,95 @@
+package com.boot.common.serializer;
+
+import org.springframework.util.ClassUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类型别名表, 序列化时以短别名代替完整类名
+ * <p>
+ * 别名写入时加上 {@link #ALIAS_PREFIX}, 与类名区分; 未注册的类型仍写完整类名.
+ * 别名一旦写入 redis 就不能再修改或指向其他类型
+ * @author Yarns
+ */
+public class TypeAliasRegistry {
+
+    public static final char ALIAS_PREFIX = '#';
+
+    private final Map<Class<?>, String> ids = new ConcurrentHashMap<>();
+
+    private final Map<String, Class<?>> types = new ConcurrentHashMap<>();
+
+    public TypeAliasRegistry() {
+        register("al", ArrayList.class);
+        register("ll", LinkedList.class);
+        register("hm", HashMap.class);
+        register("lhm", LinkedHashMap.class);
+        register("tm", TreeMap.class);
+        register("hs", HashSet.class);
+        register("lhs", LinkedHashSet.class);
+        register("tset", TreeSet.class);
+        register("date", Date.class);
+        register("bd", BigDecimal.class);
+        register("bi", BigInteger.class);
+    }
+
+    /**
+     * 按配置注册别名
+     * @param aliases     别名 -> 类名
+     * @param classLoader 类加载器
+     * @return TypeAliasRegistry
+     */
+    public static TypeAliasRegistry of(Map<String, String> aliases, ClassLoader classLoader) {
+        TypeAliasRegistry registry = new TypeAliasRegistry();
+        aliases.forEach((alias, className) -> registry.register(alias, ClassUtils.resolveClassName(className, classLoader)));
+        return registry;
+    }
+
+    /**
+     * @param alias 别名
+     * @param type  类型
+     */
+    public void register(String alias, Class<?> type) {
+        String id = ALIAS_PREFIX + alias;
+        Class<?> existing = types.putIfAbsent(id, type);
+        if (existing != null && existing != type) {
+            throw new IllegalStateException("类型别名重复: " + alias + " -> " + existing.getName() + ", " + type.getName());
+        }
+        String previous = ids.putIfAbsent(type, id);
+        if (previous != null && !previous.equals(id)) {
+            types.remove(id);
+            throw new IllegalStateException("类型重复注册别名: " + type.getName() + " -> " + previous + ", " + id);
+        }
+    }
+
+    /**
+     * @param type 类型
+     * @return 带前缀的别名, 未注册返回 null
+     */
+    public String idFor(Class<?> type) {
+        return ids.get(type);
+    }
+
+    /**
+     * @param id 带前缀的别名
+     * @return 类型, 不是别名或未注册返回 null
+     */
+    public Class<?> typeFor(String id) {
+        if (id.isEmpty() || id.charAt(0) != ALIAS_PREFIX) {
+            return null;
+        }
+        return types.get(id);
+    }
+}
@@ -0,0 +1,81 @@
+package com.boot.common.serializer;
+
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * 默认类型信息使用 {@link TypeAliasRegistry} 中的别名, 未注册的类型写完整类名
+ * @author Yarns
+ */
+public class TypeAliasResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TypeAliasRegistry registry;
+
+    public TypeAliasResolverBuilder(ObjectMapper.DefaultTyping typing, PolymorphicTypeValidator validator,
+                                    TypeAliasRegistry registry) {
+        super(typing, validator);
+        this.registry = registry;
+    }
+
+    private TypeAliasResolverBuilder(TypeAliasResolverBuilder base, Class<?> defaultImpl) {
+        super(base, defaultImpl);
+        this.registry = base.registry;
+    }
+
+    @Override
+    public ObjectMapper.DefaultTypeResolverBuilder withDefaultImpl(Class<?> defaultImpl) {
+        if (_defaultImpl == defaultImpl) {
+            return this;
+        }
+        return new TypeAliasResolverBuilder(this, defaultImpl);
+    }
+
+    @Override
+    protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType, PolymorphicTypeValidator subtypeValidator,
+                                        Collection<NamedType> subtypes, boolean forSer, boolean forDeser) {
+        return new AliasIdResolver(baseType, config.getTypeFactory(), subtypeValidator, registry);
+    }
+
+    static class AliasIdResolver extends ClassNameIdResolver {
+
+        private final TypeAliasRegistry registry;
+
+        AliasIdResolver(JavaType baseType, TypeFactory typeFactory, PolymorphicTypeValidator validator,
+                        TypeAliasRegistry registry) {
+            super(baseType, typeFactory, validator);
+            this.registry = registry;
+        }
+
+        @Override
+        public String idFromValue(Object value) {
+            return idFromValueAndType(value, value.getClass());
+        }
+
+        @Override
+        public String idFromValueAndType(Object value, Class<?> type) {
+            String id = registry.idFor(type);
+            return id != null ? id : super.idFromValueAndType(value, type);
+        }
+
+        @Override
+        public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+            Class<?> type = registry.typeFor(id);
+            if (type != null) {
+                return context.constructSpecializedType(_baseType, type);
+            }
+            return super.typeFromId(context, id);
+        }
+    }
+}